@@ -0,0 +1,46 @@
+package io.birdactyl.sdk;
+
+import io.birdactyl.sdk.proto.ListServersResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoBenchmark {
+    @Param({"100", "10000"})
+    public int servers;
+
+    private ListServersResponse resp;
+    private byte[] wire;
+
+    @Setup
+    public void setup() {
+        resp = Fixtures.listServers(servers);
+        wire = resp.toByteArray();
+    }
+
+    @Benchmark
+    public List<PanelAPI.Server> convert() {
+        List<PanelAPI.Server> out = new ArrayList<>(resp.getServersCount());
+        for (io.birdactyl.sdk.proto.Server s : resp.getServersList()) {
+            out.add(new PanelAPI.Server(s));
+        }
+        return out;
+    }
+
+    @Benchmark
+    public List<PanelAPI.Server> parseAndConvert() throws Exception {
+        ListServersResponse parsed = ListServersResponse.parseFrom(wire);
+        List<PanelAPI.Server> out = new ArrayList<>(parsed.getServersCount());
+        for (io.birdactyl.sdk.proto.Server s : parsed.getServersList()) {
+            out.add(new PanelAPI.Server(s));
+        }
+        return out;
+    }
+}
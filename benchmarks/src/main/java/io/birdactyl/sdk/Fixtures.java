@@ -0,0 +1,128 @@
+package io.birdactyl.sdk;
+
+import com.google.gson.Gson;
+import com.google.protobuf.ByteString;
+import io.birdactyl.sdk.proto.HTTPRequest;
+import io.birdactyl.sdk.proto.ListServersResponse;
+import io.birdactyl.sdk.proto.MixinRequest;
+import io.birdactyl.sdk.proto.PanelMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class Fixtures {
+    static final int RESOURCES = 30;
+    private static final Gson gson = new Gson();
+    private static final byte[] OK = "ok".getBytes(StandardCharsets.UTF_8);
+
+    private Fixtures() {}
+
+    static BirdactylPlugin plugin() {
+        return new BirdactylPlugin("bench", "0.0.0") {};
+    }
+
+    static BirdactylPlugin pluginWithRoutes() {
+        BirdactylPlugin plugin = plugin();
+        for (int i = 0; i < RESOURCES; i++) {
+            String base = "/api/r" + i;
+            plugin.route("GET", base, req -> Response.ok(OK));
+            plugin.route("POST", base, req -> Response.ok(OK));
+            plugin.route("GET", base + "/:id", req -> Response.ok(OK));
+            plugin.route("DELETE", base + "/:id", req -> Response.ok(OK));
+            plugin.route("GET", base + "/:id/files/*path", req -> Response.ok(OK));
+        }
+        return plugin;
+    }
+
+    static PanelMessage http(String method, String path) {
+        return PanelMessage.newBuilder()
+                .setRequestId("bench")
+                .setHttp(HTTPRequest.newBuilder()
+                        .setMethod(method)
+                        .setPath(path)
+                        .putHeaders("Content-Type", "application/json")
+                        .putHeaders("Authorization", "Bearer 0123456789abcdef")
+                        .setUserId("user-1"))
+                .build();
+    }
+
+    static HTTPRequest httpWithBody(int bytes) {
+        return HTTPRequest.newBuilder()
+                .setMethod("POST")
+                .setPath("/api/r1")
+                .putHeaders("Content-Type", "application/json")
+                .putHeaders("X-Request-Id", "abc")
+                .putQuery("page", "2")
+                .setUserId("user-1")
+                .setBody(ByteString.copyFromUtf8(jsonBody(bytes)))
+                .build();
+    }
+
+    static PanelMessage mixin(String target, int servers) {
+        return PanelMessage.newBuilder()
+                .setRequestId("bench")
+                .setMixin(MixinRequest.newBuilder()
+                        .setTarget(target)
+                        .setInput(ByteString.copyFromUtf8(gson.toJson(serverListInput(servers))))
+                        .setChainData(ByteString.copyFromUtf8("{\"trace\":\"abc\",\"hops\":2}")))
+                .build();
+    }
+
+    static Map<String, Object> serverListInput(int servers) {
+        Map<String, Object> input = new LinkedHashMap<>();
+        input.put("user_id", "user-1");
+        input.put("is_admin", true);
+        input.put("page", 1);
+        input.put("servers", rows(servers));
+        return input;
+    }
+
+    static List<Map<String, Object>> rows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", "srv-" + i);
+            row.put("name", "Server number " + i);
+            row.put("node_id", "node-" + (i % 16));
+            row.put("status", i % 3 == 0 ? "running" : "offline");
+            row.put("memory", 2048 + i);
+            row.put("cpu", 100);
+            row.put("disk", 10240);
+            row.put("suspended", false);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static ListServersResponse listServers(int count) {
+        ListServersResponse.Builder resp = ListServersResponse.newBuilder().setTotal(count);
+        for (int i = 0; i < count; i++) {
+            resp.addServers(io.birdactyl.sdk.proto.Server.newBuilder()
+                    .setId("srv-" + i)
+                    .setName("Server number " + i)
+                    .setUserId("user-" + (i % 100))
+                    .setNodeId("node-" + (i % 16))
+                    .setStatus("running")
+                    .setMemory(2048)
+                    .setCpu(100)
+                    .setDisk(10240)
+                    .setPackageId("pkg-1")
+                    .setPrimaryAllocation("0.0.0.0:25565"));
+        }
+        return resp.build();
+    }
+
+    private static String jsonBody(int bytes) {
+        StringBuilder sb = new StringBuilder(bytes + 64).append("{\"items\":[");
+        int i = 0;
+        while (sb.length() < bytes) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(i).append(",\"name\":\"item-").append(i).append("\"}");
+            i++;
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -0,0 +1,51 @@
+package io.birdactyl.sdk;
+
+import io.birdactyl.sdk.proto.PanelMessage;
+import io.birdactyl.sdk.proto.PluginMessage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MixinBenchmark {
+    @Param({"10", "1000"})
+    public int servers;
+
+    @Param({"next", "readOne", "setOne", "returnValue"})
+    public String handler;
+
+    private BirdactylPlugin plugin;
+    private PanelMessage msg;
+
+    @Setup
+    public void setup() {
+        plugin = Fixtures.plugin();
+        switch (handler) {
+            case "next":
+                plugin.mixin(MixinTargets.SERVER_LIST, MixinContext::next);
+                break;
+            case "readOne":
+                plugin.mixin(MixinTargets.SERVER_LIST, ctx -> ctx.getBool("is_admin") ? ctx.next() : ctx.error("denied"));
+                break;
+            case "setOne":
+                plugin.mixin(MixinTargets.SERVER_LIST, ctx -> {
+                    ctx.set("page", 2);
+                    return ctx.next();
+                });
+                break;
+            default:
+                plugin.mixin(MixinTargets.SERVER_LIST, ctx -> ctx.returnValue(ctx.get("servers")));
+                break;
+        }
+        msg = Fixtures.mixin(MixinTargets.SERVER_LIST, servers);
+    }
+
+    @Benchmark
+    public PluginMessage handleMixin() {
+        return plugin.handle(msg).join();
+    }
+}
@@ -0,0 +1,39 @@
+package io.birdactyl.sdk;
+
+import io.birdactyl.sdk.proto.HTTPRequest;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBenchmark {
+    @Param({"256", "65536"})
+    public int bodyBytes;
+
+    private HTTPRequest proto;
+
+    @Setup
+    public void setup() {
+        proto = Fixtures.httpWithBody(bodyBytes);
+    }
+
+    @Benchmark
+    public Request construct() {
+        return new Request(proto);
+    }
+
+    @Benchmark
+    public String header() {
+        return new Request(proto).header("content-type");
+    }
+
+    @Benchmark
+    public Map<String, Object> json() {
+        return new Request(proto).json();
+    }
+}
@@ -0,0 +1,34 @@
+package io.birdactyl.sdk;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+    @Param({"10", "10000"})
+    public int rows;
+
+    private List<Map<String, Object>> data;
+
+    @Setup
+    public void setup() {
+        data = Fixtures.rows(rows);
+    }
+
+    @Benchmark
+    public Response json() {
+        return Response.json(data);
+    }
+
+    @Benchmark
+    public Response error() {
+        return Response.error(404, "server not found");
+    }
+}
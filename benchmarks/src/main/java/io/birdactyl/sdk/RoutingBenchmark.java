@@ -0,0 +1,37 @@
+package io.birdactyl.sdk;
+
+import io.birdactyl.sdk.proto.PanelMessage;
+import io.birdactyl.sdk.proto.PluginMessage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmark {
+    @Param({"static", "param", "wildcard", "miss"})
+    public String shape;
+
+    private BirdactylPlugin plugin;
+    private PanelMessage msg;
+
+    @Setup
+    public void setup() {
+        plugin = Fixtures.pluginWithRoutes();
+        int last = Fixtures.RESOURCES - 1;
+        switch (shape) {
+            case "static": msg = Fixtures.http("GET", "/api/r" + last); break;
+            case "param": msg = Fixtures.http("DELETE", "/api/r" + last + "/srv-42"); break;
+            case "wildcard": msg = Fixtures.http("GET", "/api/r" + last + "/srv-42/files/plugins/config/app.yml"); break;
+            default: msg = Fixtures.http("GET", "/api/unknown/srv-42"); break;
+        }
+    }
+
+    @Benchmark
+    public PluginMessage handleHTTP() {
+        return plugin.handle(msg).join();
+    }
+}
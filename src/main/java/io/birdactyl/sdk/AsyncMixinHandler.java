@@ -0,0 +1,8 @@
+package io.birdactyl.sdk;
+
+import java.util.concurrent.CompletableFuture;
+
+@FunctionalInterface
+public interface AsyncMixinHandler {
+    CompletableFuture<MixinResult> handle(MixinContext ctx);
+}
@@ -0,0 +1,92 @@
+package io.birdactyl.sdk;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+final class Batch<T> {
+    static final int DEFAULT_CONCURRENCY = 16;
+
+    private final List<String> ids;
+    private final Object[] values;
+    private final Throwable[] errors;
+    private final int concurrency;
+    private final Function<String, CompletableFuture<T>> call;
+    private final CompletableFuture<BatchResult<T>> result = new CompletableFuture<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private int next;
+
+    private Batch(List<String> ids, int concurrency, Function<String, CompletableFuture<T>> call) {
+        this.ids = ids;
+        this.values = new Object[ids.size()];
+        this.errors = new Throwable[ids.size()];
+        this.concurrency = Math.max(1, concurrency);
+        this.call = call;
+        this.remaining = new AtomicInteger(ids.size());
+    }
+
+    static <T> CompletableFuture<BatchResult<T>> run(Collection<String> ids, int concurrency, Function<String, CompletableFuture<T>> call) {
+        Batch<T> batch = new Batch<>(new ArrayList<>(new LinkedHashSet<>(ids)), concurrency, call);
+        if (batch.ids.isEmpty()) {
+            batch.finish();
+        } else {
+            batch.pump();
+        }
+        return batch.result;
+    }
+
+    private void pump() {
+        if (wip.getAndIncrement() != 0) return;
+        do {
+            while (next < ids.size() && inFlight.get() < concurrency) {
+                inFlight.incrementAndGet();
+                start(next++);
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private void start(int index) {
+        CompletableFuture<T> f;
+        try {
+            f = call.apply(ids.get(index));
+        } catch (RuntimeException e) {
+            f = CompletableFuture.failedFuture(e);
+        }
+        f.whenComplete((v, t) -> {
+            if (t != null) {
+                errors[index] = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            } else {
+                values[index] = v;
+            }
+            inFlight.decrementAndGet();
+            if (remaining.decrementAndGet() == 0) {
+                finish();
+            } else {
+                pump();
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void finish() {
+        Map<String, T> found = new LinkedHashMap<>();
+        Map<String, Throwable> failed = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (errors[i] != null) {
+                failed.put(ids.get(i), errors[i]);
+            } else if (values[i] != null) {
+                found.put(ids.get(i), (T) values[i]);
+            }
+        }
+        result.complete(new BatchResult<>(found, failed));
+    }
+}
@@ -0,0 +1,21 @@
+package io.birdactyl.sdk;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class BatchResult<T> {
+    private final Map<String, T> values;
+    private final Map<String, Throwable> errors;
+
+    BatchResult(Map<String, T> values, Map<String, Throwable> errors) {
+        this.values = Collections.unmodifiableMap(values);
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    public Map<String, T> values() { return values; }
+    public Map<String, Throwable> errors() { return errors; }
+    public T get(String id) { return values.get(id); }
+    public Throwable error(String id) { return errors.get(id); }
+    public boolean isComplete() { return errors.isEmpty(); }
+    public int size() { return values.size(); }
+}
@@ -1,56 +1,157 @@
 package io.birdactyl.sdk;
 
+import com.google.common.hash.HashCode;
 import com.google.gson.Gson;
 import com.google.protobuf.ByteString;
 import io.birdactyl.sdk.proto.*;
 import io.grpc.*;
-import io.grpc.stub.StreamObserver;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public abstract class BirdactylPlugin {
     private static final Gson gson = new Gson();
     private final String id;
     private String name;
     private final String version;
-    private final Map<String, Function<Event, EventResult>> eventHandlers = new ConcurrentHashMap<>();
-    private final Map<String, RouteRegistration> routeHandlers = new ConcurrentHashMap<>();
-    private final Map<String, Runnable> scheduleHandlers = new ConcurrentHashMap<>();
-    private final Map<String, MixinRegistration> mixinHandlers = new ConcurrentHashMap<>();
+    private final Map<String, EventChain> eventHandlers = new ConcurrentHashMap<>();
+    private final Router<RouteRegistration> router = new Router<>();
+    private final Map<String, ScheduleRegistration> scheduleHandlers = new ConcurrentHashMap<>();
+    private final Map<String, MixinChain> mixinHandlers = new ConcurrentHashMap<>();
     private final Map<String, AddonTypeRegistration> addonTypeHandlers = new ConcurrentHashMap<>();
+    private final Map<String, List<MixinCache>> cacheInvalidations = new ConcurrentHashMap<>();
     private final List<RouteInfo> routes = new ArrayList<>();
     private final List<ScheduleInfo> schedules = new ArrayList<>();
-    private final List<MixinInfo> mixins = new ArrayList<>();
     private final List<AddonTypeInfo> addonTypes = new ArrayList<>();
-    private final CountDownLatch shutdownLatch = new CountDownLatch(1);
     private PanelAPI api;
     private PanelAPIAsync asyncApi;
     private PanelServiceGrpc.PanelServiceStub asyncStub;
     private Executor asyncExecutor = ForkJoinPool.commonPool();
+    private Executor dispatchExecutor;
+    private int dispatchThreads = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+    private int dispatchQueueSize = 1024;
+    private long maxPendingBytes = 64L * 1024 * 1024;
+    private long outboundLingerMicros;
+    private long outboundBatchBytes = 256 * 1024;
+    private final Map<MessageKind, Bulkhead> bulkheads = new EnumMap<>(MessageKind.class);
+    private long handlerTimeoutMillis;
+    private ScheduledThreadPoolExecutor deadlines;
+    private KeyedSerializer eventSerializer;
+    private final Metrics metrics = new Metrics();
     private File dataDir;
     private boolean useDataDir = false;
     private Runnable onStartCallback;
-    private StreamObserver<PluginMessage> outStream;
+    private volatile OutboundWriter outbound;
+    private volatile ConnectionState connectionState = ConnectionState.DISCONNECTED;
+    private volatile boolean closing;
+    private final List<Consumer<ConnectionState>> connectionListeners = new CopyOnWriteArrayList<>();
+    private final Queue<ConsoleStream> detachedConsoles = new ConcurrentLinkedQueue<>();
+    private final AtomicLong reconnects = new AtomicLong();
+    private boolean autoReconnect = true;
+    private long reconnectInitialMillis = 500;
+    private long reconnectMaxMillis = 30_000;
+    private int maxReconnectAttempts;
     private PluginUIInfo uiInfo;
+    private PayloadCodec payloadCodec = PayloadCodec.JSON;
+    private volatile PayloadCodec activeCodec = PayloadCodec.JSON;
+    private EntityCache entityCache;
+
+    private static class EventRegistration {
+        final String eventType;
+        final Function<Event, CompletableFuture<EventResult>> handler;
+        int priority;
+        long timeoutMillis;
+        Function<Event, ?> orderKey;
+        EventRegistration(String eventType, Function<Event, CompletableFuture<EventResult>> handler) {
+            this.eventType = eventType; this.handler = handler;
+        }
+    }
+
+    private static class ScheduleRegistration {
+        final String scheduleId;
+        final Supplier<CompletableFuture<?>> handler;
+        long timeoutMillis;
+        ScheduleRegistration(String scheduleId, Supplier<CompletableFuture<?>> handler) {
+            this.scheduleId = scheduleId; this.handler = handler;
+        }
+    }
 
     private static class MixinRegistration {
         final String target;
         final int priority;
-        final MixinHandler handler;
-        MixinRegistration(String target, int priority, MixinHandler handler) {
+        final AsyncMixinHandler handler;
+        long timeoutMillis;
+        MixinRegistration(String target, int priority, AsyncMixinHandler handler) {
             this.target = target; this.priority = priority; this.handler = handler;
         }
     }
 
+    private static class HandlerScope {
+        final PanelMessage msg;
+        final CompletableFuture<PluginMessage> reply;
+        final Bulkhead bulkhead;
+        final Metrics.Handler metric;
+        volatile boolean degraded;
+        HandlerScope(PanelMessage msg, CompletableFuture<PluginMessage> reply, Bulkhead bulkhead, Metrics.Handler metric) {
+            this.msg = msg; this.reply = reply; this.bulkhead = bulkhead; this.metric = metric;
+        }
+    }
+
+    private static class EventChain extends HandlerChain<EventRegistration> {
+        EventChain() {
+            super(r -> r.priority);
+        }
+
+        Function<Event, ?> orderKey() {
+            for (EventRegistration r : handlers()) {
+                if (r.orderKey != null) return r.orderKey;
+            }
+            return null;
+        }
+
+        long timeoutMillis(long defaultMillis) {
+            long total = 0;
+            for (EventRegistration r : handlers()) {
+                long t = r.timeoutMillis > 0 ? r.timeoutMillis : defaultMillis;
+                if (t <= 0) return 0;
+                total += t;
+            }
+            return total;
+        }
+    }
+
+    private static class MixinChain extends HandlerChain<MixinRegistration> {
+        volatile MixinCache cache;
+
+        MixinChain() {
+            super(r -> r.priority);
+        }
+    }
+
     private static class AddonTypeRegistration {
         final String typeId;
-        final AddonTypeHandler handler;
-        AddonTypeRegistration(String typeId, AddonTypeHandler handler) {
+        final AsyncAddonTypeHandler handler;
+        long timeoutMillis;
+        AddonTypeRegistration(String typeId, AsyncAddonTypeHandler handler) {
             this.typeId = typeId; this.handler = handler;
         }
     }
@@ -58,12 +159,13 @@ public abstract class BirdactylPlugin {
     private static class RouteRegistration {
         final String method;
         final String path;
-        final Function<Request, Response> handler;
+        final Function<Request, CompletableFuture<Response>> handler;
         String rateLimitPreset;
         int rateLimitRPM;
         int rateLimitBurst;
+        long timeoutMillis;
 
-        RouteRegistration(String method, String path, Function<Request, Response> handler) {
+        RouteRegistration(String method, String path, Function<Request, CompletableFuture<Response>> handler) {
             this.method = method;
             this.path = path;
             this.handler = handler;
@@ -79,6 +181,11 @@ public abstract class BirdactylPlugin {
         AddonTypeResult handle(AddonTypeContext ctx);
     }
 
+    @FunctionalInterface
+    public interface AsyncAddonTypeHandler {
+        CompletableFuture<AddonTypeResult> handle(AddonTypeContext ctx);
+    }
+
     public BirdactylPlugin(String id, String version) {
         this.id = id;
         this.name = id;
@@ -100,11 +207,124 @@ public abstract class BirdactylPlugin {
         return this;
     }
 
+    public BirdactylPlugin dispatchExecutor(Executor executor) {
+        this.dispatchExecutor = executor;
+        return this;
+    }
+
+    public BirdactylPlugin dispatchThreads(int threads, int queueSize) {
+        this.dispatchThreads = threads;
+        this.dispatchQueueSize = queueSize;
+        return this;
+    }
+
+    public BirdactylPlugin bulkhead(MessageKind kind, int maxInFlight) {
+        return bulkhead(kind, null, maxInFlight);
+    }
+
+    public BirdactylPlugin bulkhead(MessageKind kind, Executor executor, int maxInFlight) {
+        bulkheads.put(kind, new Bulkhead(kind, executor, maxInFlight));
+        return this;
+    }
+
+    public Bulkhead bulkhead(MessageKind kind) {
+        return bulkheads.get(kind);
+    }
+
+    public BirdactylPlugin handlerTimeout(long timeout, TimeUnit unit) {
+        this.handlerTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    public BirdactylPlugin exposeMetrics() {
+        return exposeMetrics("/metrics");
+    }
+
+    public BirdactylPlugin exposeMetrics(String path) {
+        route("GET", path, req -> Response.text(metrics.toPrometheus())
+                .header("Content-Type", "text/plain; version=0.0.4; charset=utf-8"));
+        return this;
+    }
+
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    public BirdactylPlugin maxPendingBytes(long bytes) {
+        this.maxPendingBytes = bytes;
+        return this;
+    }
+
+    public BirdactylPlugin outboundBatching(long linger, TimeUnit unit, long batchBytes) {
+        this.outboundLingerMicros = unit.toMicros(linger);
+        this.outboundBatchBytes = batchBytes;
+        return this;
+    }
+
+    public BirdactylPlugin autoReconnect(boolean enabled) {
+        this.autoReconnect = enabled;
+        return this;
+    }
+
+    public BirdactylPlugin reconnectBackoff(long initial, long max, TimeUnit unit) {
+        this.reconnectInitialMillis = unit.toMillis(initial);
+        this.reconnectMaxMillis = unit.toMillis(max);
+        return this;
+    }
+
+    public BirdactylPlugin maxReconnectAttempts(int attempts) {
+        this.maxReconnectAttempts = attempts;
+        return this;
+    }
+
+    public BirdactylPlugin onConnectionState(Consumer<ConnectionState> listener) {
+        this.connectionListeners.add(listener);
+        return this;
+    }
+
+    public ConnectionState connectionState() {
+        return connectionState;
+    }
+
+    public long reconnectCount() {
+        return reconnects.get();
+    }
+
     public BirdactylPlugin onStart(Runnable callback) {
         this.onStartCallback = callback;
         return this;
     }
 
+    public BirdactylPlugin payloadCodec(PayloadCodec codec) {
+        this.payloadCodec = codec;
+        return this;
+    }
+
+    public PayloadCodec payloadCodec() {
+        return payloadCodec;
+    }
+
+    public PayloadCodec activePayloadCodec() {
+        return activeCodec;
+    }
+
+    public BirdactylPlugin cacheEntities() {
+        if (entityCache == null) {
+            entityCache = new EntityCache();
+        }
+        return this;
+    }
+
+    public BirdactylPlugin cacheEntities(Consumer<EntityCache> configure) {
+        cacheEntities();
+        configure.accept(entityCache);
+        return this;
+    }
+
+    public EntityCache entityCache() {
+        return entityCache;
+    }
+
     public BirdactylPlugin setUI(PluginUIInfo ui) {
         this.uiInfo = ui;
         return this;
@@ -114,13 +334,60 @@ public abstract class BirdactylPlugin {
         return new UIBuilder();
     }
 
-    public void onEvent(String eventType, Function<Event, EventResult> handler) {
-        eventHandlers.put(eventType, handler);
+    public EventBuilder onEvent(String eventType, Function<Event, EventResult> handler) {
+        return onEventAsync(eventType, ev -> CompletableFuture.completedFuture(handler.apply(ev)));
+    }
+
+    /** Shorthand for {@code onEvent(eventType, handler).orderedBy(orderKey)}; see {@link EventBuilder#orderedBy}. */
+    public EventBuilder onEvent(String eventType, Function<Event, ?> orderKey, Function<Event, EventResult> handler) {
+        return onEvent(eventType, handler).orderedBy(orderKey);
+    }
+
+    public EventBuilder onEventAsync(String eventType, Function<Event, CompletableFuture<EventResult>> handler) {
+        EventRegistration reg = new EventRegistration(eventType, handler);
+        eventHandlers.computeIfAbsent(eventType, k -> new EventChain()).add(reg);
+        return new EventBuilder(reg);
+    }
+
+    public class EventBuilder {
+        private final EventRegistration registration;
+
+        EventBuilder(EventRegistration registration) {
+            this.registration = registration;
+        }
+
+        public EventBuilder timeout(long timeout, TimeUnit unit) {
+            registration.timeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Run events with the same key one at a time, in arrival order; other keys
+         * never wait on them. The timeout counts from when the event arrives, so an
+         * event stuck behind a slow handler for its key is still answered with
+         * allow on time, and its handlers run later in order. A timed-out async
+         * handler's future is cancelled and its key moves on then, so work it keeps
+         * doing after ignoring the cancellation is only ordered best-effort.
+         */
+        public EventBuilder orderedBy(Function<Event, ?> keyExtractor) {
+            registration.orderKey = keyExtractor;
+            return this;
+        }
+
+        public EventBuilder priority(int priority) {
+            registration.priority = priority;
+            eventHandlers.get(registration.eventType).resort();
+            return this;
+        }
     }
 
     public RouteBuilder route(String method, String path, Function<Request, Response> handler) {
+        return routeAsync(method, path, req -> CompletableFuture.completedFuture(handler.apply(req)));
+    }
+
+    public RouteBuilder routeAsync(String method, String path, Function<Request, CompletableFuture<Response>> handler) {
         RouteRegistration reg = new RouteRegistration(method, path, handler);
-        routeHandlers.put(method + ":" + path, reg);
+        router.add(method, path, reg);
         routes.add(RouteInfo.newBuilder().setMethod(method).setPath(path).build());
         return new RouteBuilder(reg, routes);
     }
@@ -147,6 +414,11 @@ public abstract class BirdactylPlugin {
             return this;
         }
 
+        public RouteBuilder timeout(long timeout, TimeUnit unit) {
+            registration.timeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
         private void updateRouteInfo() {
             routesList.removeIf(r -> r.getMethod().equals(registration.method) && r.getPath().equals(registration.path));
             RouteInfo.Builder builder = RouteInfo.newBuilder()
@@ -167,23 +439,103 @@ public abstract class BirdactylPlugin {
         }
     }
 
-    public void schedule(String scheduleId, String cron, Runnable handler) {
-        scheduleHandlers.put(scheduleId, handler);
+    public ScheduleBuilder schedule(String scheduleId, String cron, Runnable handler) {
+        return scheduleAsync(scheduleId, cron, () -> {
+            handler.run();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    public ScheduleBuilder scheduleAsync(String scheduleId, String cron, Supplier<CompletableFuture<?>> handler) {
+        ScheduleRegistration reg = new ScheduleRegistration(scheduleId, handler);
+        scheduleHandlers.put(scheduleId, reg);
         schedules.add(ScheduleInfo.newBuilder().setId(scheduleId).setCron(cron).build());
+        return new ScheduleBuilder(reg);
+    }
+
+    public class ScheduleBuilder {
+        private final ScheduleRegistration registration;
+
+        ScheduleBuilder(ScheduleRegistration registration) {
+            this.registration = registration;
+        }
+
+        public ScheduleBuilder timeout(long timeout, TimeUnit unit) {
+            registration.timeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
     }
 
-    public void mixin(String target, MixinHandler handler) {
-        mixin(target, 0, handler);
+    public MixinBuilder mixin(String target, MixinHandler handler) {
+        return mixin(target, 0, handler);
     }
 
-    public void mixin(String target, int priority, MixinHandler handler) {
-        mixinHandlers.put(target, new MixinRegistration(target, priority, handler));
-        mixins.add(MixinInfo.newBuilder().setTarget(target).setPriority(priority).build());
+    public MixinBuilder mixin(String target, int priority, MixinHandler handler) {
+        return mixinAsync(target, priority, ctx -> CompletableFuture.completedFuture(handler.handle(ctx)));
     }
 
-    public void addonType(String typeId, AddonTypeHandler handler) {
-        addonTypeHandlers.put(typeId, new AddonTypeRegistration(typeId, handler));
+    public MixinBuilder mixinAsync(String target, AsyncMixinHandler handler) {
+        return mixinAsync(target, 0, handler);
+    }
+
+    public MixinBuilder mixinAsync(String target, int priority, AsyncMixinHandler handler) {
+        MixinRegistration reg = new MixinRegistration(target, priority, handler);
+        mixinHandlers.computeIfAbsent(target, k -> new MixinChain()).add(reg);
+        return new MixinBuilder(reg);
+    }
+
+    public class MixinBuilder {
+        private final MixinRegistration registration;
+
+        MixinBuilder(MixinRegistration registration) {
+            this.registration = registration;
+        }
+
+        public MixinBuilder timeout(long timeout, TimeUnit unit) {
+            registration.timeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        public MixinBuilder cache(long ttl, TimeUnit unit, long maxSize) {
+            if (MixinCache.isWriteTarget(registration.target)) {
+                throw new IllegalArgumentException("cannot cache write target " + registration.target);
+            }
+            MixinCache cache = new MixinCache(registration.target, ttl, unit, maxSize);
+            mixinHandlers.get(registration.target).cache = cache;
+            for (String eventType : MixinCache.invalidatedBy(registration.target)) {
+                cacheInvalidations.computeIfAbsent(eventType, k -> new CopyOnWriteArrayList<>()).add(cache);
+            }
+            return this;
+        }
+    }
+
+    public MixinCache mixinCache(String target) {
+        MixinChain chain = mixinHandlers.get(target);
+        return chain != null ? chain.cache : null;
+    }
+
+    public AddonTypeBuilder addonType(String typeId, AddonTypeHandler handler) {
+        return addonTypeAsync(typeId, ctx -> CompletableFuture.completedFuture(handler.handle(ctx)));
+    }
+
+    public AddonTypeBuilder addonTypeAsync(String typeId, AsyncAddonTypeHandler handler) {
+        AddonTypeRegistration reg = new AddonTypeRegistration(typeId, handler);
+        addonTypeHandlers.put(typeId, reg);
         addonTypes.add(AddonTypeInfo.newBuilder().setTypeId(typeId).build());
+        return new AddonTypeBuilder(reg);
+    }
+
+    public class AddonTypeBuilder {
+        private final AddonTypeRegistration registration;
+
+        AddonTypeBuilder(AddonTypeRegistration registration) {
+            this.registration = registration;
+        }
+
+        public AddonTypeBuilder timeout(long timeout, TimeUnit unit) {
+            registration.timeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
     }
 
     public void registerMixin(Class<? extends MixinClass> clazz) {
@@ -192,12 +544,27 @@ public abstract class BirdactylPlugin {
         try {
             MixinClass instance = clazz.getDeclaredConstructor().newInstance();
             instance.init(this);
-            mixin(annotation.value(), annotation.priority(), instance::handle);
+            MixinBuilder builder = mixin(annotation.value(), annotation.priority(), instance::handle);
+            if (annotation.cacheTtl() > 0) {
+                builder.cache(annotation.cacheTtl(), annotation.cacheTtlUnit(), annotation.cacheSize());
+            }
         } catch (Exception e) {
             System.err.println("[mixin] Failed to register " + clazz.getName() + ": " + e.getMessage());
         }
     }
 
+    public BirdactylPlugin register(PluginIndex index) {
+        index.register(this);
+        return this;
+    }
+
+    public BirdactylPlugin registerIndexed() {
+        for (PluginIndex index : ServiceLoader.load(PluginIndex.class, getClass().getClassLoader())) {
+            index.register(this);
+        }
+        return this;
+    }
+
     public void registerMixins(Class<?>... classes) {
         for (Class<?> clazz : classes) {
             if (MixinClass.class.isAssignableFrom(clazz)) {
@@ -214,12 +581,31 @@ public abstract class BirdactylPlugin {
         return asyncApi;
     }
 
+    public OutboundWriter outbound() {
+        return outbound;
+    }
+
     public ConsoleStream streamConsole(ConsoleStream.Builder builder) {
-        ConsoleStream stream = builder.build();
-        asyncStub.streamConsole(builder.buildRequest(), stream.createObserver());
+        ConsoleStream stream = builder.build(this::reattachConsole);
+        asyncStub.streamConsole(stream.request(), stream.createObserver());
         return stream;
     }
 
+    private void reattachConsole(ConsoleStream stream) {
+        detachedConsoles.add(stream);
+        deadlines.schedule(this::resumeConsoles, reconnectInitialMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void resumeConsoles() {
+        if (connectionState != ConnectionState.CONNECTED) return;
+        ConsoleStream stream;
+        while ((stream = detachedConsoles.poll()) != null) {
+            if (stream.isRunning()) {
+                asyncStub.streamConsole(stream.resumeRequest(), stream.createObserver());
+            }
+        }
+    }
+
     public ConsoleStream.Builder console(String serverId) {
         return new ConsoleStream.Builder(serverId);
     }
@@ -300,62 +686,170 @@ public abstract class BirdactylPlugin {
             dataDir.mkdirs();
         }
 
-        ManagedChannel channel = ManagedChannelBuilder.forTarget(panelAddress)
-                .usePlaintext()
-                .intercept(new ClientInterceptor() {
+        start(ManagedChannelBuilder.forTarget(panelAddress).usePlaintext().build());
+    }
+
+    public void start(ManagedChannel panelChannel) throws Exception {
+        if (dataDir == null) {
+            dataDir = new File(id + "_data");
+            if (useDataDir) {
+                dataDir.mkdirs();
+            }
+        }
+
+        Channel channel = ClientInterceptors.intercept(panelChannel, new ClientInterceptor() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions options, Channel next) {
+                return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, options)) {
                     @Override
-                    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions options, Channel next) {
-                        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, options)) {
-                            @Override
-                            public void start(Listener<RespT> listener, Metadata headers) {
-                                headers.put(Metadata.Key.of("x-plugin-id", Metadata.ASCII_STRING_MARSHALLER), id);
-                                super.start(listener, headers);
-                            }
-                        };
+                    public void start(Listener<RespT> listener, Metadata headers) {
+                        headers.put(Metadata.Key.of("x-plugin-id", Metadata.ASCII_STRING_MARSHALLER), id);
+                        super.start(listener, headers);
                     }
-                })
-                .build();
+                };
+            }
+        });
 
-        api = new PanelAPI(PanelServiceGrpc.newBlockingStub(channel));
-        asyncApi = new PanelAPIAsync(PanelServiceGrpc.newFutureStub(channel), asyncExecutor);
+        api = new PanelAPI(PanelServiceGrpc.newBlockingStub(channel)).entityCache(entityCache);
+        asyncApi = new PanelAPIAsync(PanelServiceGrpc.newFutureStub(channel), asyncExecutor).entityCache(entityCache);
         asyncStub = PanelServiceGrpc.newStub(channel);
+        if (dispatchExecutor == null) {
+            dispatchExecutor = DispatchExecutors.create(id + "-dispatch", dispatchThreads, dispatchQueueSize);
+        }
+        for (MessageKind kind : MessageKind.values()) {
+            Bulkhead b = bulkheads.get(kind);
+            if (b == null || b.executor() == null) {
+                bulkheads.put(kind, new Bulkhead(kind, dispatchExecutor, b != null ? b.maxInFlight() : 0));
+            }
+        }
+        deadlines = new ScheduledThreadPoolExecutor(1, DispatchExecutors.daemonFactory(id + "-deadlines"));
+        deadlines.setRemoveOnCancelPolicy(true);
+        eventSerializer = new KeyedSerializer();
+        registerGauges();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+
+        boolean started = false;
+        int attempt = 0;
+        while (!closing) {
+            setConnectionState(ConnectionState.CONNECTING);
+            OutboundWriter writer = new OutboundWriter(maxPendingBytes, deadlines, outboundLingerMicros, outboundBatchBytes);
+            CompletableFuture<Boolean> registered = new CompletableFuture<>();
+            CompletableFuture<Void> closed = new CompletableFuture<>();
+            connect(writer, registered, closed);
+
+            if (registered.get()) {
+                attempt = 0;
+                setConnectionState(ConnectionState.CONNECTED);
+                if (!started) {
+                    started = true;
+                    System.out.println("[" + id + "] v" + version + " connected to panel");
+                    if (onStartCallback != null) {
+                        onStartCallback.run();
+                    }
+                } else {
+                    reconnects.incrementAndGet();
+                    System.out.println("[" + id + "] reconnected to panel");
+                    resumeConsoles();
+                }
+                closed.join();
+            }
 
-        CountDownLatch connectedLatch = new CountDownLatch(1);
+            if (closing || !autoReconnect) break;
+            setConnectionState(ConnectionState.DISCONNECTED);
+            attempt++;
+            if (maxReconnectAttempts > 0 && attempt > maxReconnectAttempts) {
+                System.err.println("[" + id + "] giving up after " + maxReconnectAttempts + " reconnect attempts");
+                break;
+            }
+            long delay = reconnectDelay(attempt);
+            System.err.println("[" + id + "] reconnecting in " + delay + "ms (attempt " + attempt + ")");
+            Thread.sleep(delay);
+        }
+        setConnectionState(ConnectionState.CLOSED);
+    }
+
+    public void stop() {
+        closing = true;
+        OutboundWriter writer = outbound;
+        if (writer != null) {
+            writer.complete();
+        }
+    }
+
+    private void negotiateCodec(String accepted) {
+        PayloadCodec codec = payloadCodec.name().equals(accepted) ? payloadCodec : PayloadCodec.JSON;
+        if (codec != payloadCodec) {
+            System.err.println("[" + id + "] panel did not accept payload codec " + payloadCodec.name() + ", using " + codec.name());
+        }
+        activeCodec = codec;
+    }
+
+    private void connect(OutboundWriter writer, CompletableFuture<Boolean> registered, CompletableFuture<Void> closed) {
+        outbound = writer;
+        asyncStub.connect(new ClientResponseObserver<PluginMessage, PanelMessage>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<PluginMessage> requestStream) {
+                writer.attach(requestStream);
+            }
 
-        outStream = asyncStub.connect(new StreamObserver<>() {
             @Override
             public void onNext(PanelMessage msg) {
                 if (msg.hasRegistered()) {
-                    connectedLatch.countDown();
+                    negotiateCodec(msg.getPayloadCodec());
+                    registered.complete(true);
+                    writer.received();
                     return;
                 }
-                handleMessage(msg);
+                if (msg.hasShutdown()) {
+                    System.out.println("[" + id + "] shutdown requested");
+                    System.exit(0);
+                }
+                try {
+                    dispatch(msg, writer);
+                } finally {
+                    writer.received();
+                }
             }
 
             @Override
             public void onError(Throwable t) {
                 System.err.println("[" + id + "] stream error: " + t.getMessage());
-                shutdownLatch.countDown();
+                writer.close();
+                registered.complete(false);
+                closed.complete(null);
             }
 
             @Override
             public void onCompleted() {
                 System.out.println("[" + id + "] stream closed");
-                shutdownLatch.countDown();
+                writer.close();
+                registered.complete(false);
+                closed.complete(null);
             }
         });
 
-        outStream.onNext(PluginMessage.newBuilder().setRegister(buildInfo()).build());
-
-        connectedLatch.await();
-        System.out.println("[" + id + "] v" + version + " connected to panel");
+        writer.send(PluginMessage.newBuilder().setRegister(buildInfo()).build());
+    }
 
-        if (onStartCallback != null) {
-            onStartCallback.run();
+    private long reconnectDelay(int attempt) {
+        long delay = reconnectInitialMillis << Math.min(attempt - 1, 20);
+        if (delay <= 0 || delay > reconnectMaxMillis) {
+            delay = reconnectMaxMillis;
         }
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
 
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> outStream.onCompleted()));
-        shutdownLatch.await();
+    private void setConnectionState(ConnectionState state) {
+        if (connectionState == state) return;
+        connectionState = state;
+        for (Consumer<ConnectionState> listener : connectionListeners) {
+            try {
+                listener.accept(state);
+            } catch (Exception e) {
+                System.err.println("[" + id + "] connection listener failed: " + e.getMessage());
+            }
+        }
     }
 
     private PluginInfo buildInfo() {
@@ -363,114 +857,444 @@ public abstract class BirdactylPlugin {
                 .setId(id)
                 .setName(name)
                 .setVersion(version)
-                .addAllEvents(eventHandlers.keySet())
+                .addAllEvents(subscribedEvents())
                 .addAllRoutes(routes)
                 .addAllSchedules(schedules)
-                .addAllMixins(mixins)
-                .addAllAddonTypes(addonTypes);
+                .addAllMixins(mixinInfos())
+                .addAllAddonTypes(addonTypes)
+                .setPayloadCodec(payloadCodec.name());
         if (uiInfo != null) {
             builder.setUi(uiInfo);
         }
         return builder.build();
     }
 
-    private void handleMessage(PanelMessage msg) {
+    private Set<String> subscribedEvents() {
+        if (entityCache == null && cacheInvalidations.isEmpty()) return eventHandlers.keySet();
+        Set<String> events = new LinkedHashSet<>(eventHandlers.keySet());
+        if (entityCache != null) {
+            events.addAll(entityCache.eventTypes());
+        }
+        events.addAll(cacheInvalidations.keySet());
+        return events;
+    }
+
+    private List<MixinInfo> mixinInfos() {
+        List<MixinInfo> infos = new ArrayList<>();
+        for (Map.Entry<String, MixinChain> e : mixinHandlers.entrySet()) {
+            infos.add(MixinInfo.newBuilder().setTarget(e.getKey()).setPriority(e.getValue().maxPriority()).build());
+        }
+        return infos;
+    }
+
+    private void dispatch(PanelMessage msg, OutboundWriter writer) {
+        MessageKind kind = MessageKind.of(msg);
+        if (kind == null) return;
+        invalidateCaches(msg);
+        Bulkhead bulkhead = bulkheads.get(kind);
+        if (!bulkhead.tryAcquire()) {
+            writer.send(fallbackResponse(msg, 503, "plugin overloaded"));
+            return;
+        }
+        CompletableFuture<PluginMessage> reply = new CompletableFuture<>();
+        reply.thenAccept(writer::send);
+        Object orderKey = orderKey(msg);
+        if (orderKey != null) {
+            EventChain chain = eventHandlers.get(msg.getEvent().getType());
+            armDeadline(msg, reply, bulkhead, metrics.handler(MessageKind.EVENT, msg.getEvent().getType()),
+                    chain.timeoutMillis(handlerTimeoutMillis));
+            eventSerializer.submit(orderKey, bulkhead.executor(), () -> handleMessage(msg, reply, bulkhead))
+                    .whenComplete((r, t) -> {
+                        bulkhead.release();
+                        if (t != null && t.getCause() instanceof RejectedExecutionException) {
+                            bulkhead.reject();
+                            reply.complete(fallbackResponse(msg, 503, "plugin overloaded"));
+                        }
+                    });
+            return;
+        }
+        try {
+            bulkhead.executor().execute(() -> handleMessage(msg, reply, bulkhead).whenComplete((r, t) -> bulkhead.release()));
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            bulkhead.reject();
+            reply.complete(fallbackResponse(msg, 503, "plugin overloaded"));
+        }
+    }
+
+    private void invalidateCaches(PanelMessage msg) {
+        if (!msg.hasEvent()) return;
+        io.birdactyl.sdk.proto.Event ev = msg.getEvent();
+        if (entityCache != null) {
+            entityCache.onEvent(new Event(ev.getType(), ev.getDataMap(), ev.getSync()));
+        }
+        List<MixinCache> dependents = cacheInvalidations.get(ev.getType());
+        if (dependents != null) {
+            for (MixinCache cache : dependents) {
+                cache.invalidateAll();
+            }
+        }
+    }
+
+    private Object orderKey(PanelMessage msg) {
+        if (!msg.hasEvent()) return null;
+        EventChain chain = eventHandlers.get(msg.getEvent().getType());
+        Function<Event, ?> key = chain != null ? chain.orderKey() : null;
+        if (key == null) return null;
+        io.birdactyl.sdk.proto.Event ev = msg.getEvent();
+        try {
+            return key.apply(new Event(ev.getType(), ev.getDataMap(), ev.getSync()));
+        } catch (Exception e) {
+            System.err.println("[" + id + "] order key for " + ev.getType() + " failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private CompletableFuture<PluginMessage> handleMessage(PanelMessage msg, CompletableFuture<PluginMessage> reply, Bulkhead bulkhead) {
+        CompletableFuture<PluginMessage> work;
+        try {
+            work = buildResponse(msg, reply, bulkhead);
+        } catch (Throwable t) {
+            work = Futures.failed(t);
+        }
+        CompletableFuture<PluginMessage> running = work;
+        reply.whenComplete((r, t) -> running.cancel(true));
+        work.whenComplete((resp, t) -> {
+            if (t != null) {
+                if (reply.isDone()) return;
+                Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                System.err.println("[" + id + "] handler error: " + cause);
+                reply.complete(failureResponse(msg, cause.getMessage() != null ? cause.getMessage() : cause.toString()));
+            } else if (resp != null) {
+                reply.complete(resp);
+            }
+        });
+        return work;
+    }
+
+    CompletableFuture<PluginMessage> handle(PanelMessage msg) {
+        MessageKind kind = MessageKind.of(msg);
+        if (kind == null) return CompletableFuture.completedFuture(null);
+        invalidateCaches(msg);
+        return buildResponse(msg, new CompletableFuture<>(), new Bulkhead(kind, Runnable::run, 0));
+    }
+
+    private CompletableFuture<PluginMessage> buildResponse(PanelMessage msg, CompletableFuture<PluginMessage> reply, Bulkhead bulkhead) {
         PluginMessage.Builder resp = PluginMessage.newBuilder().setRequestId(msg.getRequestId());
 
         if (msg.hasEvent()) {
-            resp.setEventResponse(handleEvent(msg.getEvent()));
+            EventChain chain = eventHandlers.get(msg.getEvent().getType());
+            Metrics.Handler metric = metrics.handler(MessageKind.EVENT, msg.getEvent().getType());
+            return track(metric, () -> handleEvent(msg.getEvent(), chain, new HandlerScope(msg, reply, bulkhead, metric))).thenApply(r -> resp.setEventResponse(r).build());
         } else if (msg.hasHttp()) {
-            resp.setHttpResponse(handleHTTP(msg.getHttp()));
+            Router.Match<RouteRegistration> match = router.match(msg.getHttp().getMethod(), msg.getHttp().getPath());
+            Metrics.Handler metric = metrics.handler(MessageKind.HTTP,
+                    match != null ? match.value.method + " " + match.value.path : "unmatched");
+            armDeadline(msg, reply, bulkhead, metric, match != null ? match.value.timeoutMillis : 0);
+            return track(metric, () -> handleHTTP(msg.getHttp(), match)).thenApply(r -> resp.setHttpResponse(r).build());
         } else if (msg.hasSchedule()) {
-            handleSchedule(msg.getSchedule());
-            resp.setScheduleResponse(Empty.getDefaultInstance());
+            ScheduleRegistration reg = scheduleHandlers.get(msg.getSchedule().getScheduleId());
+            Metrics.Handler metric = metrics.handler(MessageKind.SCHEDULE, msg.getSchedule().getScheduleId());
+            armDeadline(msg, reply, bulkhead, metric, reg != null ? reg.timeoutMillis : 0);
+            return track(metric, () -> handleSchedule(reg)).thenApply(r -> resp.setScheduleResponse(Empty.getDefaultInstance()).build());
         } else if (msg.hasMixin()) {
-            resp.setMixinResponse(handleMixin(msg.getMixin()));
+            MixinChain chain = mixinHandlers.get(msg.getMixin().getTarget());
+            Metrics.Handler metric = metrics.handler(MessageKind.MIXIN, msg.getMixin().getTarget());
+            return track(metric, () -> handleMixin(msg.getMixin(), chain, new HandlerScope(msg, reply, bulkhead, metric))).thenApply(r -> resp.setMixinResponse(r).build());
         } else if (msg.hasAddonType()) {
-            resp.setAddonTypeResponse(handleAddonType(msg.getAddonType()));
-        } else if (msg.hasShutdown()) {
-            System.out.println("[" + id + "] shutdown requested");
-            System.exit(0);
-        } else {
-            return;
+            AddonTypeRegistration reg = addonTypeHandlers.get(msg.getAddonType().getTypeId());
+            Metrics.Handler metric = metrics.handler(MessageKind.ADDON_TYPE, msg.getAddonType().getTypeId());
+            armDeadline(msg, reply, bulkhead, metric, reg != null ? reg.timeoutMillis : 0);
+            return track(metric, () -> handleAddonType(msg.getAddonType(), reg)).thenApply(r -> resp.setAddonTypeResponse(r).build());
         }
 
-        outStream.onNext(resp.build());
+        return CompletableFuture.completedFuture(null);
     }
 
-    private EventResponse handleEvent(io.birdactyl.sdk.proto.Event ev) {
-        Function<Event, EventResult> handler = eventHandlers.get(ev.getType());
-        EventResult result = EventResult.allow();
-        if (handler != null) {
-            result = handler.apply(new Event(ev.getType(), ev.getDataMap(), ev.getSync()));
+    private <T> CompletableFuture<T> track(Metrics.Handler metric, Supplier<CompletableFuture<T>> call) {
+        long start = metric.start();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (Throwable t) {
+            metric.stop(start, true);
+            throw t;
         }
-        return EventResponse.newBuilder().setAllow(result.isAllowed()).setMessage(result.getMessage()).build();
+        return future.whenComplete((r, t) -> metric.stop(start, t != null));
     }
 
-    private HTTPResponse handleHTTP(HTTPRequest request) {
-        RouteRegistration reg = routeHandlers.get(request.getMethod() + ":" + request.getPath());
-        if (reg == null) {
-            for (Map.Entry<String, RouteRegistration> entry : routeHandlers.entrySet()) {
-                String[] parts = entry.getKey().split(":", 2);
-                if ((parts[0].equals("*") || parts[0].equals(request.getMethod())) && matchPath(parts[1], request.getPath())) {
-                    reg = entry.getValue();
-                    break;
-                }
+    private void registerGauges() {
+        for (Bulkhead b : bulkheads.values()) {
+            Map<String, String> labels = Collections.singletonMap("kind", b.kind().name().toLowerCase());
+            metrics.gauge("birdactyl_bulkhead_in_flight", labels, "Messages holding a bulkhead slot.", b::inFlight);
+            metrics.gauge("birdactyl_bulkhead_rejected_total", labels, "Messages shed by a full bulkhead.", b::rejectedCount);
+            metrics.gauge("birdactyl_bulkhead_timeouts_total", labels, "Messages answered by the deadline fallback.", b::timeoutCount);
+        }
+        for (Map.Entry<String, MixinChain> e : mixinHandlers.entrySet()) {
+            MixinCache cache = e.getValue().cache;
+            if (cache == null) continue;
+            Map<String, String> labels = Collections.singletonMap("target", e.getKey());
+            metrics.gauge("birdactyl_mixin_cache_hits_total", labels, "Mixin requests answered from the cache.", cache::hitCount);
+            metrics.gauge("birdactyl_mixin_cache_misses_total", labels, "Mixin requests that ran the handler.", cache::missCount);
+            metrics.gauge("birdactyl_mixin_cache_invalidations_total", labels, "Cache flushes caused by write events.", cache::invalidationCount);
+            metrics.gauge("birdactyl_mixin_cache_size", labels, "Entries held in the mixin cache.", cache::size);
+        }
+        if (entityCache != null) {
+            for (EntityCache.Type type : EntityCache.Type.values()) {
+                Map<String, String> labels = Collections.singletonMap("entity", type.name().toLowerCase());
+                metrics.gauge("birdactyl_entity_cache_hits_total", labels, "Panel reads answered from the entity cache.", () -> entityCache.hitCount(type));
+                metrics.gauge("birdactyl_entity_cache_misses_total", labels, "Panel reads that went to the panel.", () -> entityCache.missCount(type));
+                metrics.gauge("birdactyl_entity_cache_invalidations_total", labels, "Entity cache entries dropped by events or writes.", () -> entityCache.invalidationCount(type));
+                metrics.gauge("birdactyl_entity_cache_size", labels, "Entities held in the cache.", () -> entityCache.size(type));
             }
         }
+        metrics.gauge("birdactyl_ordered_keys_pending", "Event order keys with an event queued or running.",
+                eventSerializer::pendingKeys);
+        metrics.gauge("birdactyl_panel_calls_coalesced_total", "Async panel reads that joined an identical in-flight call.",
+                asyncApi::coalescedCount);
+        metrics.gauge("birdactyl_outbound_queue_depth", "Replies waiting for the Connect stream.",
+                () -> outbound != null ? outbound.queueDepth() : 0);
+        metrics.gauge("birdactyl_outbound_bytes_pending", "Serialized bytes waiting for the Connect stream.",
+                () -> outbound != null ? outbound.bytesPending() : 0);
+        metrics.gauge("birdactyl_outbound_reads_held_total", "Panel messages whose read was held back because the outbound byte budget was full.",
+                () -> outbound != null ? outbound.readsHeld() : 0);
+        metrics.gauge("birdactyl_outbound_flushes_total", "Write passes that pushed queued replies onto the Connect stream.",
+                () -> outbound != null ? outbound.flushCount() : 0);
+        metrics.gauge("birdactyl_connected", "1 while registered with the panel.",
+                () -> connectionState == ConnectionState.CONNECTED ? 1 : 0);
+        metrics.gauge("birdactyl_reconnects_total", "Successful reconnects to the panel.", reconnects::get);
+    }
 
-        Response resp;
-        if (reg != null) {
-            resp = reg.handler.apply(new Request(request));
+    private void armDeadline(PanelMessage msg, CompletableFuture<PluginMessage> reply, Bulkhead bulkhead, Metrics.Handler metric, long timeoutMillis) {
+        long timeout = timeoutMillis > 0 ? timeoutMillis : handlerTimeoutMillis;
+        if (timeout <= 0 || deadlines == null) return;
+        ScheduledFuture<?> deadline = deadlines.schedule(() -> {
+            if (reply.complete(fallbackResponse(msg, 504, "handler timed out"))) {
+                timedOut(bulkhead, metric, timeout);
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        reply.whenComplete((r, t) -> deadline.cancel(false));
+    }
+
+    private <T> CompletableFuture<T> withDeadline(Supplier<CompletableFuture<T>> call, long timeoutMillis, Supplier<T> fallback, HandlerScope scope) {
+        long timeout = timeoutMillis > 0 ? timeoutMillis : handlerTimeoutMillis;
+        if (timeout <= 0 || deadlines == null) return call.get();
+        CompletableFuture<T> out = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> work = new AtomicReference<>();
+        AtomicBoolean expired = new AtomicBoolean();
+        Runnable expire = () -> {
+            if (!expired.compareAndSet(false, true) || out.isDone()) return;
+            CompletableFuture<T> w = work.get();
+            if (w != null) {
+                w.cancel(true);
+            } else {
+                scope.reply.complete(fallbackResponse(scope.msg, 504, "handler timed out"));
+            }
+            scope.degraded = true;
+            if (out.complete(fallback.get())) {
+                timedOut(scope.bulkhead, scope.metric, timeout);
+            }
+        };
+        ScheduledFuture<?> deadline = deadlines.schedule(() -> {
+            if (out.isDone()) return;
+            try {
+                scope.bulkhead.executor().execute(expire);
+            } catch (RejectedExecutionException e) {
+                expire.run();
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        CompletableFuture<T> w;
+        try {
+            w = call.get();
+        } catch (Throwable t) {
+            w = Futures.failed(t);
+        }
+        work.set(w);
+        if (expired.get()) w.cancel(true);
+        w.whenComplete((r, t) -> {
+            deadline.cancel(false);
+            if (expired.get()) return;
+            if (t != null) {
+                out.completeExceptionally(t);
+            } else {
+                out.complete(r);
+            }
+        });
+        return out;
+    }
+
+    private static boolean answered(HandlerScope scope) {
+        return scope.degraded && scope.reply.isDone();
+    }
+
+    private void timedOut(Bulkhead bulkhead, Metrics.Handler metric, long timeout) {
+        bulkhead.timeout();
+        metric.timeout();
+        System.err.println("[" + id + "] " + bulkhead.kind() + " handler timed out after " + timeout + "ms");
+    }
+
+    private PluginMessage failureResponse(PanelMessage msg, String error) {
+        PluginMessage.Builder resp = PluginMessage.newBuilder().setRequestId(msg.getRequestId());
+        if (msg.hasEvent()) {
+            resp.setEventResponse(EventResponse.newBuilder().setAllow(true).build());
+        } else if (msg.hasHttp()) {
+            resp.setHttpResponse(toHTTPResponse(Response.error(500, error)));
+        } else if (msg.hasSchedule()) {
+            resp.setScheduleResponse(Empty.getDefaultInstance());
+        } else if (msg.hasMixin()) {
+            resp.setMixinResponse(io.birdactyl.sdk.proto.MixinResponse.newBuilder()
+                    .setAction(io.birdactyl.sdk.proto.MixinResponse.Action.ERROR)
+                    .setError(error)
+                    .build());
+        } else if (msg.hasAddonType()) {
+            resp.setAddonTypeResponse(io.birdactyl.sdk.proto.AddonTypeResponse.newBuilder()
+                    .setSuccess(false)
+                    .setError(error)
+                    .build());
+        }
+        return resp.build();
+    }
+
+    private PluginMessage fallbackResponse(PanelMessage msg, int httpStatus, String error) {
+        PluginMessage.Builder resp = PluginMessage.newBuilder().setRequestId(msg.getRequestId());
+        if (msg.hasEvent()) {
+            resp.setEventResponse(EventResponse.newBuilder().setAllow(true).build());
+        } else if (msg.hasHttp()) {
+            resp.setHttpResponse(toHTTPResponse(Response.error(httpStatus, error)));
+        } else if (msg.hasSchedule()) {
+            resp.setScheduleResponse(Empty.getDefaultInstance());
+        } else if (msg.hasMixin()) {
+            resp.setMixinResponse(io.birdactyl.sdk.proto.MixinResponse.newBuilder()
+                    .setAction(io.birdactyl.sdk.proto.MixinResponse.Action.NEXT)
+                    .build());
+        } else if (msg.hasAddonType()) {
+            resp.setAddonTypeResponse(io.birdactyl.sdk.proto.AddonTypeResponse.newBuilder()
+                    .setSuccess(false)
+                    .setError(error)
+                    .build());
+        }
+        return resp.build();
+    }
+
+    private CompletableFuture<EventResponse> handleEvent(io.birdactyl.sdk.proto.Event ev, EventChain chain, HandlerScope scope) {
+        Event event = new Event(ev.getType(), ev.getDataMap(), ev.getSync());
+        CompletableFuture<EventResult> result = CompletableFuture.completedFuture(EventResult.allow());
+        if (chain != null) {
+            result = runEventChain(chain.handlers(), 0, event, scope);
+        }
+        return result.thenApply(r -> EventResponse.newBuilder().setAllow(r.isAllowed()).setMessage(r.getMessage()).build());
+    }
+
+    private CompletableFuture<EventResult> runEventChain(List<EventRegistration> chain, int index, Event event, HandlerScope scope) {
+        EventRegistration reg = chain.get(index);
+        return withDeadline(() -> reg.handler.apply(event), reg.timeoutMillis, EventResult::allow, scope).thenCompose(r -> {
+            if (!r.isAllowed() || index + 1 == chain.size() || answered(scope)) {
+                return CompletableFuture.completedFuture(r);
+            }
+            return runEventChain(chain, index + 1, event, scope);
+        });
+    }
+
+    private CompletableFuture<HTTPResponse> handleHTTP(HTTPRequest request, Router.Match<RouteRegistration> match) {
+        CompletableFuture<Response> resp;
+        if (match != null) {
+            Request req = new Request(request);
+            if (match.hasNamedParams()) {
+                req.setPathParams(match.params);
+            }
+            resp = match.value.handler.apply(req);
         } else {
-            resp = Response.error(404, "not found");
+            resp = CompletableFuture.completedFuture(Response.error(404, "not found"));
         }
 
+        return resp.thenApply(this::toHTTPResponse);
+    }
+
+    private HTTPResponse toHTTPResponse(Response resp) {
         return HTTPResponse.newBuilder()
                 .setStatus(resp.getStatus())
-                .putAllHeaders(resp.getHeaders())
-                .setBody(ByteString.copyFrom(resp.getBody()))
+                .putAllHeaders(resp.headers())
+                .setBody(resp.getBodyBytes())
                 .build();
     }
 
-    private void handleSchedule(ScheduleRequest request) {
-        Runnable handler = scheduleHandlers.get(request.getScheduleId());
-        if (handler != null) {
-            handler.run();
+    private CompletableFuture<?> handleSchedule(ScheduleRegistration reg) {
+        if (reg != null) {
+            return reg.handler.get();
         }
+        return CompletableFuture.completedFuture(null);
     }
 
-    @SuppressWarnings("unchecked")
-    private io.birdactyl.sdk.proto.MixinResponse handleMixin(io.birdactyl.sdk.proto.MixinRequest request) {
-        MixinRegistration reg = mixinHandlers.get(request.getTarget());
-        if (reg == null) {
-            return io.birdactyl.sdk.proto.MixinResponse.newBuilder()
+    private CompletableFuture<io.birdactyl.sdk.proto.MixinResponse> handleMixin(io.birdactyl.sdk.proto.MixinRequest request, MixinChain chain, HandlerScope scope) {
+        if (chain == null) {
+            return CompletableFuture.completedFuture(io.birdactyl.sdk.proto.MixinResponse.newBuilder()
                     .setAction(io.birdactyl.sdk.proto.MixinResponse.Action.NEXT)
-                    .build();
+                    .build());
+        }
+
+        MixinCache cache = chain.cache;
+        if (cache == null) {
+            return runMixin(request, chain, scope);
+        }
+        HashCode key = cache.key(request);
+        io.birdactyl.sdk.proto.MixinResponse cached = cache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
         }
+        long generation = cache.generation();
+        return runMixin(request, chain, scope).thenApply(resp -> {
+            if (!scope.degraded) {
+                cache.put(key, generation, resp);
+            }
+            return resp;
+        });
+    }
 
-        Map<String, Object> input = gson.fromJson(request.getInput().toStringUtf8(), Map.class);
-        Map<String, Object> chainData = null;
-        if (!request.getChainData().isEmpty()) {
-            chainData = gson.fromJson(request.getChainData().toStringUtf8(), Map.class);
+    private CompletableFuture<io.birdactyl.sdk.proto.MixinResponse> runMixin(io.birdactyl.sdk.proto.MixinRequest request, MixinChain chain, HandlerScope scope) {
+        MixinContext ctx = new MixinContext(request.getTarget(), request.getRequestId(), request.getInput(), request.getChainData(), activeCodec);
+        List<MixinRegistration> handlers = chain.handlers();
+        if (handlers.size() == 1) {
+            return runMixinHandler(handlers.get(0), ctx, scope).thenApply(this::toMixinResponse);
         }
+        return runMixinChain(handlers, 0, ctx, null, new ArrayList<>(), scope).thenApply(this::toMixinResponse);
+    }
+
+    private CompletableFuture<MixinResult> runMixinHandler(MixinRegistration reg, MixinContext ctx, HandlerScope scope) {
+        return withDeadline(() -> reg.handler.handle(ctx), reg.timeoutMillis,
+                () -> new MixinResult(MixinResult.Action.NEXT, null, null, null, Collections.emptyList()), scope);
+    }
 
-        MixinContext ctx = new MixinContext(request.getTarget(), request.getRequestId(), input, chainData);
-        MixinResult result = reg.handler.handle(ctx);
+    private CompletableFuture<MixinResult> runMixinChain(List<MixinRegistration> chain, int index, MixinContext ctx,
+                                                         Map<String, Object> modified, List<MixinResult.Notification> notifications, HandlerScope scope) {
+        return runMixinHandler(chain.get(index), ctx, scope).thenCompose(r -> {
+            notifications.addAll(r.getNotifications());
+            Map<String, Object> input = r.getModifiedInput() != null ? r.getModifiedInput() : modified;
+            if (r.getAction() != MixinResult.Action.NEXT) {
+                return CompletableFuture.completedFuture(new MixinResult(r.getAction(), r.getOutput(), r.getError(), null, notifications));
+            }
+            if (index + 1 == chain.size() || answered(scope)) {
+                return CompletableFuture.completedFuture(new MixinResult(MixinResult.Action.NEXT, null, null, input, notifications));
+            }
+            MixinContext next = new MixinContext(ctx.getTarget(), ctx.getRequestId(),
+                    input != null ? input : ctx.getInput(), ctx.getChainData());
+            return runMixinChain(chain, index + 1, next, input, notifications, scope);
+        });
+    }
 
+    private io.birdactyl.sdk.proto.MixinResponse toMixinResponse(MixinResult result) {
         io.birdactyl.sdk.proto.MixinResponse.Builder resp = io.birdactyl.sdk.proto.MixinResponse.newBuilder();
 
         switch (result.getAction()) {
             case NEXT:
                 resp.setAction(io.birdactyl.sdk.proto.MixinResponse.Action.NEXT);
                 if (result.getModifiedInput() != null) {
-                    resp.setModifiedInput(ByteString.copyFromUtf8(gson.toJson(result.getModifiedInput())));
+                    resp.setModifiedInput(activeCodec.encode(result.getModifiedInput()));
                 }
                 break;
             case RETURN:
                 resp.setAction(io.birdactyl.sdk.proto.MixinResponse.Action.RETURN);
                 if (result.getOutput() != null) {
-                    resp.setOutput(ByteString.copyFromUtf8(gson.toJson(result.getOutput())));
+                    resp.setOutput(activeCodec.encode(result.getOutput()));
                 }
                 break;
             case ERROR:
@@ -490,13 +1314,12 @@ public abstract class BirdactylPlugin {
         return resp.build();
     }
 
-    private io.birdactyl.sdk.proto.AddonTypeResponse handleAddonType(io.birdactyl.sdk.proto.AddonTypeRequest request) {
-        AddonTypeRegistration reg = addonTypeHandlers.get(request.getTypeId());
+    private CompletableFuture<io.birdactyl.sdk.proto.AddonTypeResponse> handleAddonType(io.birdactyl.sdk.proto.AddonTypeRequest request, AddonTypeRegistration reg) {
         if (reg == null) {
-            return io.birdactyl.sdk.proto.AddonTypeResponse.newBuilder()
+            return CompletableFuture.completedFuture(io.birdactyl.sdk.proto.AddonTypeResponse.newBuilder()
                     .setSuccess(false)
                     .setError("addon type handler not found")
-                    .build();
+                    .build());
         }
 
         AddonTypeContext ctx = new AddonTypeContext(
@@ -510,8 +1333,10 @@ public abstract class BirdactylPlugin {
                 request.getServerVariablesMap()
         );
 
-        AddonTypeResult result = reg.handler.handle(ctx);
+        return reg.handler.handle(ctx).thenApply(this::toAddonTypeResponse);
+    }
 
+    private io.birdactyl.sdk.proto.AddonTypeResponse toAddonTypeResponse(AddonTypeResult result) {
         io.birdactyl.sdk.proto.AddonTypeResponse.Builder resp = io.birdactyl.sdk.proto.AddonTypeResponse.newBuilder()
                 .setSuccess(result.isSuccess())
                 .setError(result.getError() != null ? result.getError() : "")
@@ -538,12 +1363,4 @@ public abstract class BirdactylPlugin {
 
         return resp.build();
     }
-
-    private boolean matchPath(String pattern, String path) {
-        if (pattern.equals(path)) return true;
-        if (pattern.endsWith("*")) {
-            return path.startsWith(pattern.substring(0, pattern.length() - 1));
-        }
-        return false;
-    }
 }
@@ -0,0 +1,57 @@
+package io.birdactyl.sdk;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Bulkhead {
+    private final MessageKind kind;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    Bulkhead(MessageKind kind, Executor executor, int maxInFlight) {
+        this.kind = kind;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public MessageKind kind() { return kind; }
+    public int maxInFlight() { return maxInFlight; }
+    public int inFlight() { return inFlight.get(); }
+    public long rejectedCount() { return rejected.sum(); }
+    public long timeoutCount() { return timeouts.sum(); }
+
+    Executor executor() { return executor; }
+
+    boolean tryAcquire() {
+        if (maxInFlight <= 0) {
+            inFlight.incrementAndGet();
+            return true;
+        }
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    void reject() {
+        rejected.increment();
+    }
+
+    void timeout() {
+        timeouts.increment();
+    }
+}
@@ -0,0 +1,5 @@
+package io.birdactyl.sdk;
+
+public enum ConnectionState {
+    CONNECTING, CONNECTED, DISCONNECTED, CLOSED
+}
@@ -1,6 +1,7 @@
 package io.birdactyl.sdk;
 
 import io.birdactyl.sdk.proto.*;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
@@ -11,12 +12,25 @@ public class ConsoleStream {
     private final Consumer<String> lineHandler;
     private final Consumer<Throwable> errorHandler;
     private final Runnable completionHandler;
+    private final StreamConsoleRequest request;
+    private final Consumer<ConsoleStream> reattach;
 
-    ConsoleStream(String serverId, Consumer<String> lineHandler, Consumer<Throwable> errorHandler, Runnable completionHandler) {
+    ConsoleStream(String serverId, Consumer<String> lineHandler, Consumer<Throwable> errorHandler, Runnable completionHandler,
+                  StreamConsoleRequest request, Consumer<ConsoleStream> reattach) {
         this.serverId = serverId;
         this.lineHandler = lineHandler;
         this.errorHandler = errorHandler;
         this.completionHandler = completionHandler;
+        this.request = request;
+        this.reattach = reattach;
+    }
+
+    StreamConsoleRequest request() {
+        return request;
+    }
+
+    StreamConsoleRequest resumeRequest() {
+        return request.toBuilder().setIncludeHistory(false).build();
     }
 
     public void stop() {
@@ -38,6 +52,10 @@ public class ConsoleStream {
 
             @Override
             public void onError(Throwable t) {
+                if (running.get() && reattach != null && Status.fromThrowable(t).getCode() == Status.Code.UNAVAILABLE) {
+                    reattach.accept(ConsoleStream.this);
+                    return;
+                }
                 running.set(false);
                 if (errorHandler != null) {
                     errorHandler.accept(t);
@@ -99,8 +117,8 @@ public class ConsoleStream {
                     .build();
         }
 
-        ConsoleStream build() {
-            return new ConsoleStream(serverId, lineHandler, errorHandler, completionHandler);
+        ConsoleStream build(Consumer<ConsoleStream> reattach) {
+            return new ConsoleStream(serverId, lineHandler, errorHandler, completionHandler, buildRequest(), reattach);
         }
     }
 }
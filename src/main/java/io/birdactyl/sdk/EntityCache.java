@@ -0,0 +1,210 @@
+package io.birdactyl.sdk;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class EntityCache {
+    public enum Type { SERVER, USER, NODE }
+
+    private final Map<Type, Region> regions = new EnumMap<>(Type.class);
+    private final Map<String, List<Invalidation>> invalidations = new ConcurrentHashMap<>();
+
+    EntityCache() {
+        for (Type type : Type.values()) {
+            regions.put(type, new Region(30, TimeUnit.SECONDS, 10_000));
+        }
+        invalidateOn(MixinTargets.SERVER_UPDATE, Type.SERVER, "server_id", "id");
+        invalidateOn(MixinTargets.SERVER_DELETE, Type.SERVER, "server_id", "id");
+        invalidateOn(MixinTargets.SERVER_SUSPEND, Type.SERVER, "server_id", "id");
+        invalidateOn(MixinTargets.SERVER_UNSUSPEND, Type.SERVER, "server_id", "id");
+        invalidateOn(MixinTargets.SERVER_TRANSFER, Type.SERVER, "server_id", "id");
+        invalidateOn(MixinTargets.SERVER_START, Type.SERVER, "server_id", "id");
+        invalidateOn(MixinTargets.SERVER_STOP, Type.SERVER, "server_id", "id");
+        invalidateOn(MixinTargets.SERVER_KILL, Type.SERVER, "server_id", "id");
+        invalidateOn(MixinTargets.SERVER_RESTART, Type.SERVER, "server_id", "id");
+        invalidateOn(MixinTargets.USER_UPDATE, Type.USER, "user_id", "id");
+        invalidateOn(MixinTargets.USER_DELETE, Type.USER, "user_id", "id");
+        invalidateOn(MixinTargets.USER_BAN, Type.USER, "user_id", "id");
+        invalidateOn(MixinTargets.USER_UNBAN, Type.USER, "user_id", "id");
+        invalidateOn(MixinTargets.NODE_DELETE, Type.NODE, "node_id", "id");
+    }
+
+    public EntityCache policy(Type type, long ttl, TimeUnit unit, long maxSize) {
+        if (ttl <= 0 || maxSize <= 0) {
+            regions.put(type, new Region(0, unit, 0));
+        } else {
+            regions.put(type, new Region(ttl, unit, maxSize));
+        }
+        return this;
+    }
+
+    public EntityCache invalidateOn(String eventType, Type type, String... idKeys) {
+        invalidations.computeIfAbsent(eventType, k -> new CopyOnWriteArrayList<>()).add(new Invalidation(type, idKeys));
+        return this;
+    }
+
+    public Set<String> eventTypes() {
+        return Collections.unmodifiableSet(invalidations.keySet());
+    }
+
+    public void invalidate(Type type, String id) {
+        regions.get(type).invalidate(id);
+    }
+
+    public void invalidateAll(Type type) {
+        regions.get(type).invalidateAll();
+    }
+
+    public void invalidateAll() {
+        for (Region region : regions.values()) {
+            region.invalidateAll();
+        }
+    }
+
+    public long size(Type type) { return regions.get(type).size(); }
+    public long hitCount(Type type) { return regions.get(type).hits.get(); }
+    public long missCount(Type type) { return regions.get(type).misses.get(); }
+    public long invalidationCount(Type type) { return regions.get(type).invalidations.get(); }
+
+    void onEvent(Event event) {
+        List<Invalidation> list = invalidations.get(event.getType());
+        if (list == null) return;
+        for (Invalidation inv : list) {
+            String id = inv.id(event.getData());
+            if (id != null) {
+                invalidate(inv.type, id);
+            } else {
+                invalidateAll(inv.type);
+            }
+        }
+    }
+
+    <V> V get(Type type, String id, Supplier<V> loader) {
+        Region region = regions.get(type);
+        if (!region.enabled()) return loader.get();
+        @SuppressWarnings("unchecked")
+        V cached = (V) region.get(id);
+        if (cached != null) return cached;
+        long generation = region.generation(id);
+        V value = loader.get();
+        region.put(id, generation, value);
+        return value;
+    }
+
+    <V> CompletableFuture<V> getAsync(Type type, String id, Supplier<CompletableFuture<V>> loader) {
+        Region region = regions.get(type);
+        if (!region.enabled()) return loader.get();
+        @SuppressWarnings("unchecked")
+        V cached = (V) region.get(id);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        long generation = region.generation(id);
+        return loader.get().thenApply(value -> {
+            region.put(id, generation, value);
+            return value;
+        });
+    }
+
+    <V> V write(Type type, String id, Supplier<V> call) {
+        try {
+            return call.get();
+        } finally {
+            invalidate(type, id);
+        }
+    }
+
+    <V> CompletableFuture<V> writeAsync(Type type, String id, Supplier<CompletableFuture<V>> call) {
+        return call.get().whenComplete((r, t) -> invalidate(type, id));
+    }
+
+    private static class Invalidation {
+        final Type type;
+        final String[] idKeys;
+
+        Invalidation(Type type, String[] idKeys) {
+            this.type = type; this.idKeys = idKeys;
+        }
+
+        String id(Map<String, String> data) {
+            for (String key : idKeys) {
+                String v = data.get(key);
+                if (v != null && !v.isEmpty()) return v;
+            }
+            return null;
+        }
+    }
+
+    private static class Region {
+        private static final int STRIPES = 64;
+
+        final Cache<String, Object> cache;
+        final AtomicLong[] generations = new AtomicLong[STRIPES];
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong invalidations = new AtomicLong();
+
+        Region(long ttl, TimeUnit unit, long maxSize) {
+            this.cache = maxSize > 0
+                    ? CacheBuilder.newBuilder().expireAfterWrite(ttl, unit).maximumSize(maxSize).build()
+                    : null;
+            for (int i = 0; i < STRIPES; i++) {
+                generations[i] = new AtomicLong();
+            }
+        }
+
+        boolean enabled() {
+            return cache != null;
+        }
+
+        Object get(String id) {
+            Object v = cache.getIfPresent(id);
+            if (v != null) {
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+            }
+            return v;
+        }
+
+        long generation(String id) {
+            return stripe(id).get();
+        }
+
+        void put(String id, long generation, Object value) {
+            if (value == null || stripe(id).get() != generation) return;
+            cache.put(id, value);
+        }
+
+        void invalidate(String id) {
+            stripe(id).incrementAndGet();
+            invalidations.incrementAndGet();
+            if (cache != null) cache.invalidate(id);
+        }
+
+        void invalidateAll() {
+            for (AtomicLong g : generations) {
+                g.incrementAndGet();
+            }
+            invalidations.incrementAndGet();
+            if (cache != null) cache.invalidateAll();
+        }
+
+        long size() {
+            return cache != null ? cache.size() : 0;
+        }
+
+        private AtomicLong stripe(String id) {
+            return generations[(id.hashCode() & 0x7fffffff) % STRIPES];
+        }
+    }
+}
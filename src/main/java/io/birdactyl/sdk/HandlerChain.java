@@ -0,0 +1,40 @@
+package io.birdactyl.sdk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+class HandlerChain<T> {
+    private final Comparator<T> order;
+    private final ToIntFunction<T> priority;
+    private volatile List<T> handlers = Collections.emptyList();
+
+    HandlerChain(ToIntFunction<T> priority) {
+        this.priority = priority;
+        this.order = Comparator.comparingInt(priority).reversed();
+    }
+
+    synchronized void add(T handler) {
+        List<T> next = new ArrayList<>(handlers);
+        next.add(handler);
+        next.sort(order);
+        handlers = Collections.unmodifiableList(next);
+    }
+
+    synchronized void resort() {
+        List<T> next = new ArrayList<>(handlers);
+        next.sort(order);
+        handlers = Collections.unmodifiableList(next);
+    }
+
+    List<T> handlers() {
+        return handlers;
+    }
+
+    int maxPriority() {
+        List<T> h = handlers;
+        return h.isEmpty() ? 0 : priority.applyAsInt(h.get(0));
+    }
+}
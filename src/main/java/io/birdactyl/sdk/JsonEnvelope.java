@@ -0,0 +1,147 @@
+package io.birdactyl.sdk;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+final class JsonEnvelope {
+    private static final Gson gson = new Gson();
+    private static final int INITIAL_BUFFER = 8 * 1024;
+    private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final ClassValue<TypeAdapter<?>> adapters = new ClassValue<>() {
+        @Override
+        protected TypeAdapter<?> computeValue(Class<?> type) {
+            return gson.getAdapter(type);
+        }
+    };
+
+    private static final ArrayBlockingQueue<Buffer> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private JsonEnvelope() {}
+
+    static ByteString success(Object data) {
+        Buffer buf = acquire();
+        try {
+            JsonWriter out = buf.writer();
+            out.beginObject();
+            out.name("success").value(true);
+            if (data != null) {
+                out.name("data");
+                write(out, data);
+            }
+            out.endObject();
+            return buf.finish(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(buf);
+        }
+    }
+
+    static ByteString error(String message) {
+        Buffer buf = acquire();
+        try {
+            JsonWriter out = buf.writer();
+            out.beginObject();
+            out.name("success").value(false);
+            if (message != null) {
+                out.name("error").value(message);
+            }
+            out.endObject();
+            return buf.finish(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(buf);
+        }
+    }
+
+    static ByteString encode(Object value) {
+        Buffer buf = acquire();
+        try {
+            JsonWriter out = buf.writer();
+            if (value == null) {
+                out.nullValue();
+            } else {
+                write(out, value);
+            }
+            return buf.finish(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(buf);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void write(JsonWriter out, Object value) throws IOException {
+        ((TypeAdapter<Object>) adapters.get(value.getClass())).write(out, value);
+    }
+
+    private static Buffer acquire() {
+        Buffer buf = pool.poll();
+        if (buf == null) {
+            buf = new Buffer();
+        }
+        buf.clean = false;
+        return buf;
+    }
+
+    private static void release(Buffer buf) {
+        buf.count = 0;
+        if (buf.clean && buf.bytes.length <= MAX_RETAINED_BUFFER) {
+            pool.offer(buf);
+        }
+    }
+
+    private static final class Buffer extends OutputStream {
+        private byte[] bytes = new byte[INITIAL_BUFFER];
+        private int count;
+        private final Writer chars = new OutputStreamWriter(this, StandardCharsets.UTF_8);
+        boolean clean;
+
+        JsonWriter writer() throws IOException {
+            return gson.newJsonWriter(chars);
+        }
+
+        ByteString finish(JsonWriter out) throws IOException {
+            out.flush();
+            clean = true;
+            return ByteString.copyFrom(bytes, 0, count);
+        }
+
+        @Override
+        public void write(int b) {
+            ensure(count + 1);
+            bytes[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensure(count + len);
+            System.arraycopy(b, off, bytes, count, len);
+            count += len;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void ensure(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length << 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package io.birdactyl.sdk;
+
+import com.google.protobuf.ByteString;
+import java.util.Map;
+
+final class JsonPayloadCodec implements PayloadCodec {
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public Map<String, Object> decode(ByteString data) {
+        return new LazyJsonObject(data);
+    }
+
+    @Override
+    public ByteString encode(Map<String, Object> value) {
+        if (value instanceof LazyJsonObject) {
+            return ((LazyJsonObject) value).encode();
+        }
+        return JsonEnvelope.encode(value);
+    }
+}
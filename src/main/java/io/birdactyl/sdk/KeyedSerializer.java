@@ -0,0 +1,28 @@
+package io.birdactyl.sdk;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+final class KeyedSerializer {
+    private static final CompletableFuture<Void> IDLE = CompletableFuture.completedFuture(null);
+
+    private final Map<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    <T> CompletableFuture<T> submit(Object key, Executor executor, Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> prev = tails.put(key, done);
+        CompletableFuture<T> next = (prev != null ? prev : IDLE).thenComposeAsync(v -> task.get(), executor);
+        next.whenComplete((r, t) -> {
+            tails.remove(key, done);
+            done.complete(null);
+        });
+        return next;
+    }
+
+    int pendingKeys() {
+        return tails.size();
+    }
+}
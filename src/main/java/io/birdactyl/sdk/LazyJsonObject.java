@@ -0,0 +1,391 @@
+package io.birdactyl.sdk;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+final class LazyJsonObject extends AbstractMap<String, Object> {
+    private static final Gson gson = new Gson();
+    private static final TypeAdapter<Object> adapter = gson.getAdapter(Object.class);
+    private static final Object REMOVED = new Object();
+    private static final ByteString OPEN = ByteString.copyFromUtf8("{");
+    private static final ByteString CLOSE = ByteString.copyFromUtf8("}");
+    private static final ByteString COMMA = ByteString.copyFromUtf8(",");
+
+    private final ByteString source;
+    private Index index;
+    private Map<String, Object> changes;
+
+    LazyJsonObject(ByteString source) {
+        this.source = source;
+    }
+
+    private LazyJsonObject(ByteString source, Index index) {
+        this.source = source;
+        this.index = index;
+    }
+
+    ByteString source() { return source; }
+    boolean isModified() { return changes != null && !changes.isEmpty(); }
+
+    LazyJsonObject overlay() {
+        LazyJsonObject copy = new LazyJsonObject(source, index());
+        if (changes != null) {
+            copy.changes = new LinkedHashMap<>(changes);
+        }
+        return copy;
+    }
+
+    ByteString encode() {
+        if (!isModified()) return source;
+        Index idx = index();
+        if (idx.duplicates) {
+            return ByteString.copyFromUtf8(gson.toJson(new LinkedHashMap<>(this)));
+        }
+        List<ByteString> parts = new ArrayList<>();
+        parts.add(OPEN);
+        boolean first = true;
+        int runStart = -1;
+        int runEnd = -1;
+        for (Map.Entry<String, Slice> e : idx.slices.entrySet()) {
+            Slice slice = e.getValue();
+            if (!changes.containsKey(e.getKey())) {
+                if (runStart < 0) runStart = slice.keyStart;
+                runEnd = slice.end;
+                continue;
+            }
+            if (runStart >= 0) {
+                first = append(parts, source.substring(runStart, runEnd), first);
+                runStart = -1;
+            }
+            Object v = changes.get(e.getKey());
+            if (v != REMOVED && v != null) {
+                first = append(parts, member(e.getKey(), v), first);
+            }
+        }
+        if (runStart >= 0) {
+            first = append(parts, source.substring(runStart, runEnd), first);
+        }
+        for (Map.Entry<String, Object> e : changes.entrySet()) {
+            Object v = e.getValue();
+            if (v == REMOVED || v == null || idx.slices.containsKey(e.getKey())) continue;
+            first = append(parts, member(e.getKey(), v), first);
+        }
+        parts.add(CLOSE);
+        return ByteString.copyFrom(parts);
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (changes != null && changes.containsKey(key)) {
+            Object v = changes.get(key);
+            return v == REMOVED ? null : v;
+        }
+        Object v = index().value(source, key);
+        if (v instanceof Map || v instanceof List) {
+            changes().put((String) key, v);
+        }
+        return v;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (changes != null && changes.containsKey(key)) {
+            return changes.get(key) != REMOVED;
+        }
+        return index().slices.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        int size = index().slices.size();
+        if (changes != null) {
+            for (Map.Entry<String, Object> e : changes.entrySet()) {
+                boolean original = index.slices.containsKey(e.getKey());
+                if (e.getValue() == REMOVED) {
+                    if (original) size--;
+                } else if (!original) {
+                    size++;
+                }
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object prev = get(key);
+        changes().put(key, value);
+        return prev;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!containsKey(key)) return null;
+        Object prev = get(key);
+        if (index().slices.containsKey(key)) {
+            changes().put((String) key, REMOVED);
+        } else {
+            changes.remove(key);
+        }
+        return prev;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return LazyJsonObject.this.size();
+            }
+        };
+    }
+
+    private Map<String, Object> changes() {
+        if (changes == null) {
+            changes = new LinkedHashMap<>();
+        }
+        return changes;
+    }
+
+    private Index index() {
+        if (index == null) {
+            index = scan(source);
+        }
+        return index;
+    }
+
+    private static boolean append(List<ByteString> parts, ByteString member, boolean first) {
+        if (!first) parts.add(COMMA);
+        parts.add(member);
+        return false;
+    }
+
+    private static ByteString member(String key, Object value) {
+        return ByteString.copyFromUtf8(gson.toJson(key) + ":" + gson.toJson(value));
+    }
+
+    private static Object parse(ByteString source, Slice slice) {
+        try {
+            JsonReader reader = new JsonReader(new InputStreamReader(
+                    source.substring(slice.start, slice.end).newInput(), StandardCharsets.UTF_8));
+            reader.setLenient(true);
+            return adapter.read(reader);
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private final Iterator<String> originals = index().slices.keySet().iterator();
+        private final Iterator<String> added = changes != null
+                ? new ArrayList<>(changes.keySet()).iterator()
+                : Collections.emptyIterator();
+        private String next;
+        private String last;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (originals.hasNext()) {
+                    String key = originals.next();
+                    if (changes == null || changes.get(key) != REMOVED) next = key;
+                } else if (added.hasNext()) {
+                    String key = added.next();
+                    if (!index.slices.containsKey(key) && changes.get(key) != REMOVED) next = key;
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            String key = next;
+            next = null;
+            last = key;
+            return new SimpleEntry<>(key, get(key)) {
+                @Override
+                public Object setValue(Object value) {
+                    put(key, value);
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) throw new IllegalStateException();
+            LazyJsonObject.this.remove(last);
+            last = null;
+        }
+    }
+
+    private static final class Index {
+        final Map<String, Slice> slices;
+        final boolean duplicates;
+        final Map<String, Object> parsed = new HashMap<>();
+
+        Index(Map<String, Slice> slices, boolean duplicates) {
+            this.slices = slices;
+            this.duplicates = duplicates;
+        }
+
+        synchronized Object value(ByteString source, Object key) {
+            Object v = parsed.get(key);
+            if (v != null || parsed.containsKey(key)) return v;
+            Slice slice = slices.get(key);
+            if (slice == null) return null;
+            v = parse(source, slice);
+            if (!(v instanceof Map) && !(v instanceof List)) {
+                parsed.put((String) key, v);
+            }
+            return v;
+        }
+    }
+
+    private static Index scan(ByteString source) {
+        Map<String, Slice> index = new LinkedHashMap<>();
+        boolean duplicates = false;
+        ByteBuffer buf = source.asReadOnlyByteBuffer();
+        int base = buf.position();
+        int end = buf.limit();
+        int pos = skipWhitespace(buf, base, end);
+        if (pos >= end) return new Index(index, false);
+        if (buf.get(pos) != '{') throw syntax("expected object", pos);
+        pos = skipWhitespace(buf, pos + 1, end);
+        if (pos < end && buf.get(pos) == '}') return new Index(index, false);
+
+        while (pos < end) {
+            if (buf.get(pos) != '"') throw syntax("expected key", pos);
+            int keyStart = pos;
+            int keyEnd = skipString(buf, pos, end);
+            String key = decodeKey(source, buf, base, pos, keyEnd);
+
+            pos = skipWhitespace(buf, keyEnd, end);
+            if (pos >= end || buf.get(pos) != ':') throw syntax("expected ':'", pos);
+            int valueStart = skipWhitespace(buf, pos + 1, end);
+            int valueEnd = skipValue(buf, valueStart, end);
+            if (index.put(key, new Slice(keyStart - base, valueStart - base, valueEnd - base)) != null) {
+                duplicates = true;
+            }
+
+            pos = skipWhitespace(buf, valueEnd, end);
+            if (pos >= end) break;
+            byte c = buf.get(pos);
+            if (c == '}') return new Index(index, duplicates);
+            if (c != ',') throw syntax("expected ',' or '}'", pos);
+            pos = skipWhitespace(buf, pos + 1, end);
+        }
+        throw syntax("unterminated object", end);
+    }
+
+    private static String decodeKey(ByteString source, ByteBuffer buf, int base, int start, int end) {
+        for (int i = start + 1; i < end - 1; i++) {
+            if (buf.get(i) == '\\') {
+                try {
+                    JsonReader reader = new JsonReader(new InputStreamReader(
+                            source.substring(start - base, end - base).newInput(), StandardCharsets.UTF_8));
+                    reader.setLenient(true);
+                    return reader.nextString();
+                } catch (IOException e) {
+                    throw new JsonSyntaxException(e);
+                }
+            }
+        }
+        return source.substring(start + 1 - base, end - 1 - base).toStringUtf8();
+    }
+
+    private static int skipValue(ByteBuffer buf, int pos, int end) {
+        if (pos >= end) throw syntax("expected value", pos);
+        byte c = buf.get(pos);
+        if (c == '"') return skipString(buf, pos, end);
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            while (pos < end) {
+                c = buf.get(pos);
+                if (c == '"') {
+                    pos = skipString(buf, pos, end);
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (--depth == 0) return pos + 1;
+                }
+                pos++;
+            }
+            throw syntax("unterminated value", end);
+        }
+        while (pos < end) {
+            c = buf.get(pos);
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\n' || c == '\r') break;
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipString(ByteBuffer buf, int pos, int end) {
+        pos++;
+        while (pos < end) {
+            byte c = buf.get(pos);
+            if (c == '\\') {
+                pos += 2;
+            } else if (c == '"') {
+                return pos + 1;
+            } else {
+                pos++;
+            }
+        }
+        throw syntax("unterminated string", end);
+    }
+
+    private static int skipWhitespace(ByteBuffer buf, int pos, int end) {
+        while (pos < end) {
+            byte c = buf.get(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') break;
+            pos++;
+        }
+        return pos;
+    }
+
+    private static JsonSyntaxException syntax(String message, int pos) {
+        return new JsonSyntaxException(message + " at offset " + pos);
+    }
+
+    private static final class Slice {
+        final int keyStart;
+        final int start;
+        final int end;
+
+        Slice(int keyStart, int start, int end) {
+            this.keyStart = keyStart;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
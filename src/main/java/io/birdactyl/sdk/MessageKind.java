@@ -0,0 +1,18 @@
+package io.birdactyl.sdk;
+
+import io.birdactyl.sdk.proto.PanelMessage;
+
+public enum MessageKind {
+    EVENT, HTTP, MIXIN, SCHEDULE, ADDON_TYPE;
+
+    static MessageKind of(PanelMessage msg) {
+        switch (msg.getPayloadCase()) {
+            case EVENT: return EVENT;
+            case HTTP: return HTTP;
+            case MIXIN: return MIXIN;
+            case SCHEDULE: return SCHEDULE;
+            case ADDON_TYPE: return ADDON_TYPE;
+            default: return null;
+        }
+    }
+}
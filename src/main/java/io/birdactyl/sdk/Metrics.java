@@ -0,0 +1,144 @@
+package io.birdactyl.sdk;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+public class Metrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    public static class Handler {
+        private final MessageKind kind;
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        Handler(MessageKind kind, String name) {
+            this.kind = kind;
+            this.name = name;
+        }
+
+        public MessageKind kind() { return kind; }
+        public String name() { return name; }
+        public LatencyHistogram latency() { return latency; }
+        public int inFlight() { return inFlight.get(); }
+        public long errorCount() { return errors.sum(); }
+        public long timeoutCount() { return timeouts.sum(); }
+
+        long start() {
+            inFlight.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        void stop(long startNanos, boolean failed) {
+            latency.record(System.nanoTime() - startNanos);
+            inFlight.decrementAndGet();
+            if (failed) errors.increment();
+        }
+
+        void timeout() {
+            timeouts.increment();
+        }
+    }
+
+    private static class Gauge {
+        final String name;
+        final String labels;
+        final String help;
+        final LongSupplier value;
+
+        Gauge(String name, String labels, String help, LongSupplier value) {
+            this.name = name; this.labels = labels; this.help = help; this.value = value;
+        }
+    }
+
+    public Handler handler(MessageKind kind, String name) {
+        return handlers.computeIfAbsent(kind.name() + "|" + name, k -> new Handler(kind, name));
+    }
+
+    public Iterable<Handler> handlers() {
+        return handlers.values();
+    }
+
+    public void gauge(String name, String help, LongSupplier value) {
+        gauge(name, null, help, value);
+    }
+
+    public void gauge(String name, Map<String, String> labels, String help, LongSupplier value) {
+        String labelText = labels != null ? labels(labels) : "";
+        gauges.put(name + labelText, new Gauge(name, labelText, help, value));
+    }
+
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        Map<String, Handler> sorted = new TreeMap<>(handlers);
+
+        out.append("# HELP birdactyl_handler_latency_seconds Handler latency by message kind and handler.\n");
+        out.append("# TYPE birdactyl_handler_latency_seconds summary\n");
+        for (Handler h : sorted.values()) {
+            String base = "kind=\"" + h.kind.name().toLowerCase() + "\",handler=\"" + escape(h.name) + "\"";
+            for (double q : QUANTILES) {
+                out.append("birdactyl_handler_latency_seconds{").append(base).append(",quantile=\"").append(q).append("\"} ")
+                        .append(seconds(h.latency.percentileMicros(q * 100))).append('\n');
+            }
+            out.append("birdactyl_handler_latency_seconds_sum{").append(base).append("} ").append(seconds(h.latency.sumMicros())).append('\n');
+            out.append("birdactyl_handler_latency_seconds_count{").append(base).append("} ").append(h.latency.count()).append('\n');
+        }
+
+        appendHandlerValues(out, sorted, "birdactyl_handler_latency_max_seconds", "gauge", "Slowest observed handler call.",
+                h -> seconds(h.latency.maxMicros()));
+        appendHandlerValues(out, sorted, "birdactyl_handler_in_flight", "gauge", "Handler calls currently running.",
+                h -> Integer.toString(h.inFlight()));
+        appendHandlerValues(out, sorted, "birdactyl_handler_errors_total", "counter", "Handler calls that failed.",
+                h -> Long.toString(h.errorCount()));
+        appendHandlerValues(out, sorted, "birdactyl_handler_timeouts_total", "counter", "Handler calls answered by the deadline fallback.",
+                h -> Long.toString(h.timeoutCount()));
+
+        String last = null;
+        for (Gauge g : new TreeMap<>(gauges).values()) {
+            if (!g.name.equals(last)) {
+                out.append("# HELP ").append(g.name).append(' ').append(g.help).append('\n');
+                out.append("# TYPE ").append(g.name).append(g.name.endsWith("_total") ? " counter\n" : " gauge\n");
+                last = g.name;
+            }
+            out.append(g.name).append(g.labels).append(' ').append(g.value.getAsLong()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private void appendHandlerValues(StringBuilder out, Map<String, Handler> sorted, String metric, String type, String help,
+                                     Function<Handler, String> value) {
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+        for (Handler h : sorted.values()) {
+            out.append(metric).append("{kind=\"").append(h.kind.name().toLowerCase()).append("\",handler=\"")
+                    .append(escape(h.name)).append("\"} ").append(value.apply(h)).append('\n');
+        }
+    }
+
+    private static String seconds(long micros) {
+        return Double.toString(micros / 1_000_000.0);
+    }
+
+    private static String labels(Map<String, String> labels) {
+        StringBuilder sb = new StringBuilder("{");
+        for (Map.Entry<String, String> e : new TreeMap<>(labels).entrySet()) {
+            if (sb.length() > 1) sb.append(',');
+            sb.append(e.getKey()).append("=\"").append(escape(e.getValue())).append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -1,10 +1,14 @@
 package io.birdactyl.sdk;
 
 import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
 
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 public @interface Mixin {
     String value();
     int priority() default 0;
+    long cacheTtl() default 0;
+    TimeUnit cacheTtlUnit() default TimeUnit.SECONDS;
+    long cacheSize() default 1000;
 }
@@ -0,0 +1,110 @@
+package io.birdactyl.sdk;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.birdactyl.sdk.proto.MixinRequest;
+import io.birdactyl.sdk.proto.MixinResponse;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.birdactyl.sdk.MixinTargets.*;
+
+public class MixinCache {
+    private static final HashFunction hashing = Hashing.murmur3_128();
+    private static final Map<String, List<String>> writeTargets = new HashMap<>();
+
+    static {
+        writeTargets.put("server", List.of(SERVER_CREATE, SERVER_UPDATE, SERVER_DELETE, SERVER_START, SERVER_STOP,
+                SERVER_RESTART, SERVER_KILL, SERVER_SUSPEND, SERVER_UNSUSPEND, SERVER_REINSTALL, SERVER_TRANSFER,
+                ALLOCATION_ADD, ALLOCATION_DELETE, ALLOCATION_SET_PRIMARY));
+        writeTargets.put("user", List.of(USER_CREATE, USER_UPDATE, USER_DELETE, USER_BAN, USER_UNBAN));
+        writeTargets.put("database", List.of(DATABASE_CREATE, DATABASE_DELETE));
+        writeTargets.put("backup", List.of(BACKUP_CREATE, BACKUP_DELETE));
+        writeTargets.put("file", List.of(FILE_WRITE, FILE_DELETE, FILE_UPLOAD, FILE_MOVE, FILE_COPY,
+                FILE_COMPRESS, FILE_DECOMPRESS));
+        writeTargets.put("node", List.of(NODE_CREATE, NODE_DELETE));
+        writeTargets.put("package", List.of(PACKAGE_CREATE, PACKAGE_UPDATE, PACKAGE_DELETE));
+        writeTargets.put("subuser", List.of(SUBUSER_ADD, SUBUSER_UPDATE, SUBUSER_REMOVE));
+        writeTargets.put("ipban", List.of(IPBAN_CREATE, IPBAN_DELETE));
+        writeTargets.put("allocation", List.of(ALLOCATION_ADD, ALLOCATION_DELETE, ALLOCATION_SET_PRIMARY));
+        writeTargets.put("dbhost", List.of(DBHOST_CREATE, DBHOST_UPDATE, DBHOST_DELETE));
+        writeTargets.put("settings", List.of(SETTINGS_UPDATE));
+    }
+
+    private final String target;
+    private final Cache<HashCode, MixinResponse> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    MixinCache(String target, long ttl, TimeUnit unit, long maxSize) {
+        this.target = target;
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl, unit)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    static List<String> invalidatedBy(String readTarget) {
+        int dot = readTarget.indexOf('.');
+        String entity = dot > 0 ? readTarget.substring(0, dot) : readTarget;
+        return writeTargets.getOrDefault(entity, Collections.emptyList());
+    }
+
+    static boolean isWriteTarget(String target) {
+        for (List<String> targets : writeTargets.values()) {
+            if (targets.contains(target)) return true;
+        }
+        return false;
+    }
+
+    public String target() { return target; }
+    public long size() { return cache.size(); }
+    public long hitCount() { return hits.get(); }
+    public long missCount() { return misses.get(); }
+    public long invalidationCount() { return invalidations.get(); }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    HashCode key(MixinRequest request) {
+        Hasher hasher = hashing.newHasher();
+        ByteBuffer input = request.getInput().asReadOnlyByteBuffer();
+        hasher.putInt(input.remaining()).putBytes(input);
+        hasher.putBytes(request.getChainData().asReadOnlyByteBuffer());
+        return hasher.hash();
+    }
+
+    MixinResponse get(HashCode key) {
+        MixinResponse resp = cache.getIfPresent(key);
+        if (resp != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return resp;
+    }
+
+    long generation() {
+        return generation.get();
+    }
+
+    void put(HashCode key, long generation, MixinResponse resp) {
+        if (resp.getAction() == MixinResponse.Action.ERROR || resp.getNotificationsCount() > 0) return;
+        if (this.generation.get() != generation) return;
+        cache.put(key, resp);
+    }
+}
@@ -1,5 +1,6 @@
 package io.birdactyl.sdk;
 
+import com.google.protobuf.ByteString;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +21,10 @@ public class MixinContext {
         this.chainData = chainData != null ? chainData : new HashMap<>();
     }
 
+    MixinContext(String target, String requestId, ByteString input, ByteString chainData, PayloadCodec codec) {
+        this(target, requestId, codec.decode(input), chainData.isEmpty() ? null : codec.decode(chainData));
+    }
+
     public String getTarget() { return target; }
     public String getRequestId() { return requestId; }
     public Map<String, Object> getInput() { return input; }
@@ -45,7 +50,7 @@ public class MixinContext {
 
     public void set(String key, Object value) {
         if (modifiedInput == null) {
-            modifiedInput = new HashMap<>(input);
+            modifiedInput = input instanceof LazyJsonObject ? ((LazyJsonObject) input).overlay() : new HashMap<>(input);
         }
         modifiedInput.put(key, value);
     }
@@ -0,0 +1,10 @@
+package io.birdactyl.sdk;
+
+import java.lang.annotation.*;
+
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface OnEvent {
+    String value();
+    int priority() default 0;
+}
@@ -0,0 +1,150 @@
+package io.birdactyl.sdk;
+
+import io.birdactyl.sdk.proto.PluginMessage;
+import io.grpc.stub.ClientCallStreamObserver;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OutboundWriter {
+    private final ConcurrentLinkedQueue<PluginMessage> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong bytesPending = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger owed = new AtomicInteger();
+    private final AtomicLong held = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final long maxPendingBytes;
+    private final ScheduledExecutorService flusher;
+    private final long lingerMicros;
+    private final long batchBytes;
+    private volatile ClientCallStreamObserver<PluginMessage> stream;
+    private volatile boolean completeRequested;
+    private volatile boolean closed;
+    private boolean completed;
+
+    OutboundWriter(long maxPendingBytes, ScheduledExecutorService flusher, long lingerMicros, long batchBytes) {
+        this.maxPendingBytes = maxPendingBytes;
+        this.flusher = flusher;
+        this.lingerMicros = flusher != null ? lingerMicros : 0;
+        this.batchBytes = batchBytes;
+    }
+
+    void attach(ClientCallStreamObserver<PluginMessage> stream) {
+        this.stream = stream;
+        stream.disableAutoRequestWithInitial(1);
+        stream.setOnReadyHandler(this::drain);
+    }
+
+    public boolean send(PluginMessage msg) {
+        if (closed || completeRequested) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        int size = msg.getSerializedSize();
+        bytesPending.addAndGet(size);
+        depth.incrementAndGet();
+        queue.offer(msg);
+        if (closed) {
+            purge();
+            return false;
+        }
+        if (lingerMicros <= 0 || bytesPending.get() >= batchBytes) {
+            drain();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                flusher.schedule(this::flush, lingerMicros, TimeUnit.MICROSECONDS);
+            } catch (RejectedExecutionException e) {
+                flush();
+            }
+        }
+        return true;
+    }
+
+    public int queueDepth() { return depth.get(); }
+    public long bytesPending() { return bytesPending.get(); }
+    public long messagesWritten() { return written.get(); }
+    public long messagesDropped() { return dropped.get(); }
+    public long readsHeld() { return held.get(); }
+    public long flushCount() { return flushes.get(); }
+    public boolean isClosed() { return closed; }
+
+    void complete() {
+        completeRequested = true;
+        drain();
+    }
+
+    void close() {
+        closed = true;
+        purge();
+    }
+
+    void received() {
+        owed.incrementAndGet();
+        if (bytesPending.get() >= maxPendingBytes) {
+            held.incrementAndGet();
+        }
+        requestMore();
+    }
+
+    private void requestMore() {
+        ClientCallStreamObserver<PluginMessage> out = stream;
+        if (out == null || closed || bytesPending.get() >= maxPendingBytes) return;
+        int n = owed.getAndSet(0);
+        if (n > 0) {
+            out.request(n);
+        }
+    }
+
+    private void purge() {
+        PluginMessage m;
+        while ((m = queue.poll()) != null) {
+            bytesPending.addAndGet(-m.getSerializedSize());
+            depth.decrementAndGet();
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) return;
+        do {
+            ClientCallStreamObserver<PluginMessage> out = stream;
+            if (out == null || closed) continue;
+            int batch = 0;
+            while (out.isReady()) {
+                PluginMessage m = queue.poll();
+                if (m == null) break;
+                int size = m.getSerializedSize();
+                try {
+                    out.onNext(m);
+                    written.incrementAndGet();
+                } catch (RuntimeException e) {
+                    dropped.incrementAndGet();
+                }
+                depth.decrementAndGet();
+                bytesPending.addAndGet(-size);
+                batch++;
+            }
+            if (batch > 0) {
+                flushes.incrementAndGet();
+                requestMore();
+            }
+            if (completeRequested && !completed && queue.isEmpty()) {
+                completed = true;
+                out.onCompleted();
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+}
@@ -0,0 +1,19 @@
+package io.birdactyl.sdk;
+
+import java.util.List;
+
+final class Page<T> {
+    final List<T> items;
+    final int total;
+
+    Page(List<T> items, int total) {
+        this.items = items;
+        this.total = total;
+    }
+
+    boolean isLast(int offset, int pageSize) {
+        if (items.isEmpty()) return true;
+        if (total > 0) return offset + items.size() >= total;
+        return items.size() < pageSize;
+    }
+}
@@ -0,0 +1,134 @@
+package io.birdactyl.sdk;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+final class PagePublisher<T> implements Flow.Publisher<T> {
+    private final IntFunction<CompletableFuture<Page<T>>> fetch;
+    private final int pageSize;
+    private final boolean prefetch;
+
+    PagePublisher(IntFunction<CompletableFuture<Page<T>>> fetch, int pageSize, boolean prefetch) {
+        this.fetch = fetch;
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        PageSubscription s = new PageSubscription(subscriber);
+        subscriber.onSubscribe(s);
+    }
+
+    private final class PageSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final Queue<T> buffer = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean fetching;
+        private volatile boolean exhausted;
+        private volatile boolean cancelled;
+        private volatile boolean invalid;
+        private volatile Throwable error;
+        private int offset;
+
+        PageSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("request must be positive");
+                invalid = true;
+            } else {
+                requested.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            do {
+                if (invalid && !cancelled) {
+                    cancelled = true;
+                    buffer.clear();
+                    subscriber.onError(error);
+                    return;
+                }
+                while (!cancelled && requested.get() > 0) {
+                    T item = buffer.poll();
+                    if (item == null) break;
+                    buffered.decrementAndGet();
+                    if (requested.get() != Long.MAX_VALUE) requested.decrementAndGet();
+                    subscriber.onNext(item);
+                }
+                if (cancelled) {
+                    buffer.clear();
+                    return;
+                }
+                if (buffer.isEmpty() && !fetching) {
+                    Throwable t = error;
+                    if (t != null) {
+                        cancelled = true;
+                        subscriber.onError(t);
+                        return;
+                    }
+                    if (exhausted) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                }
+                if (shouldFetch()) {
+                    fetchNext();
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private boolean shouldFetch() {
+            if (fetching || exhausted || error != null) return false;
+            int size = buffered.get();
+            if (prefetch) {
+                return size < pageSize * 2 && (requested.get() > 0 || size > 0);
+            }
+            return size == 0 && requested.get() > 0;
+        }
+
+        private void fetchNext() {
+            fetching = true;
+            int from = offset;
+            CompletableFuture<Page<T>> page;
+            try {
+                page = fetch.apply(from);
+            } catch (RuntimeException e) {
+                page = CompletableFuture.failedFuture(e);
+            }
+            page.whenComplete((p, t) -> {
+                if (t != null) {
+                    error = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                } else {
+                    offset = from + p.items.size();
+                    if (p.isLast(from, pageSize)) exhausted = true;
+                    buffer.addAll(p.items);
+                    buffered.addAndGet(p.items.size());
+                }
+                fetching = false;
+                drain();
+            });
+        }
+    }
+}
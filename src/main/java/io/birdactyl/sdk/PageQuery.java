@@ -0,0 +1,52 @@
+package io.birdactyl.sdk;
+
+public class PageQuery {
+    private int pageSize = 500;
+    private boolean prefetch = true;
+    private String userId = "";
+    private String nodeId = "";
+    private String search = "";
+    private String filter = "";
+
+    public static PageQuery create() {
+        return new PageQuery();
+    }
+
+    public PageQuery pageSize(int size) {
+        if (size <= 0) throw new IllegalArgumentException("page size must be positive");
+        this.pageSize = size;
+        return this;
+    }
+
+    public PageQuery prefetch(boolean enabled) {
+        this.prefetch = enabled;
+        return this;
+    }
+
+    public PageQuery userId(String userId) {
+        this.userId = userId != null ? userId : "";
+        return this;
+    }
+
+    public PageQuery nodeId(String nodeId) {
+        this.nodeId = nodeId != null ? nodeId : "";
+        return this;
+    }
+
+    public PageQuery search(String search) {
+        this.search = search != null ? search : "";
+        return this;
+    }
+
+    public PageQuery filter(String filter) {
+        this.filter = filter != null ? filter : "";
+        return this;
+    }
+
+    public int getPageSize() { return pageSize; }
+    public boolean isPrefetch() { return prefetch; }
+    public String getUserId() { return userId; }
+    public String getNodeId() { return nodeId; }
+    public String getSearch() { return search; }
+    public String getFilter() { return filter; }
+}
@@ -0,0 +1,81 @@
+package io.birdactyl.sdk;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class Paged<T> implements Iterable<T> {
+    private final IntFunction<CompletableFuture<Page<T>>> fetch;
+    private final int pageSize;
+    private final boolean prefetch;
+
+    Paged(IntFunction<CompletableFuture<Page<T>>> fetch, int pageSize, boolean prefetch) {
+        this.fetch = fetch;
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new PageIterator();
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private class PageIterator implements Iterator<T> {
+        private Iterator<T> current = Collections.emptyIterator();
+        private CompletableFuture<Page<T>> next;
+        private int offset;
+        private boolean exhausted;
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (next == null) {
+                    if (exhausted) return false;
+                    next = fetch.apply(offset);
+                }
+                Page<T> page = await(next);
+                next = null;
+                exhausted = page.isLast(offset, pageSize);
+                offset += page.items.size();
+                if (prefetch && !exhausted) {
+                    next = fetch.apply(offset);
+                }
+                current = page.items.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return current.next();
+        }
+    }
+
+    static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new CompletionException(cause);
+        }
+    }
+}
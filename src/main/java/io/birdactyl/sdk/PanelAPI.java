@@ -3,14 +3,44 @@ package io.birdactyl.sdk;
 import com.google.gson.Gson;
 import com.google.protobuf.ByteString;
 import io.birdactyl.sdk.proto.*;
+import io.grpc.Context;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static io.birdactyl.sdk.EntityCache.Type.*;
 
 public class PanelAPI {
     private static final Gson gson = new Gson();
     private final PanelServiceGrpc.PanelServiceBlockingStub stub;
+    private final PanelAPIAsync futures;
+    private EntityCache cache;
 
     public PanelAPI(PanelServiceGrpc.PanelServiceBlockingStub stub) {
         this.stub = stub;
+        this.futures = new PanelAPIAsync(PanelServiceGrpc.newFutureStub(stub.getChannel())).coalesce(false);
+    }
+
+    PanelAPI entityCache(EntityCache cache) {
+        this.cache = cache;
+        futures.entityCache(cache);
+        return this;
+    }
+
+    private <V> V read(EntityCache.Type type, String id, Supplier<V> call) {
+        return cache != null ? cache.get(type, id, call) : call.get();
+    }
+
+    private <V> V write(EntityCache.Type type, String id, Supplier<V> call) {
+        return cache != null ? cache.write(type, id, call) : call.get();
+    }
+
+    private <T> Paged<T> paged(PageQuery query, IntFunction<CompletableFuture<Page<T>>> fetch) {
+        return new Paged<>(fetch, query.getPageSize(), query.isPrefetch());
     }
 
     public void log(String level, String message) {
@@ -18,7 +48,7 @@ public class PanelAPI {
     }
 
     public Server getServer(String id) {
-        return new Server(stub.getServer(IDRequest.newBuilder().setId(id).build()));
+        return read(SERVER, id, () -> new Server(stub.getServer(IDRequest.newBuilder().setId(id).build())));
     }
 
     public List<Server> listServers() {
@@ -30,6 +60,53 @@ public class PanelAPI {
         return out;
     }
 
+    private <R, T> Stream<T> stream(Supplier<Iterator<R>> call, Function<R, T> mapper) {
+        Context.CancellableContext ctx = Context.current().withCancellation();
+        Iterator<R> it;
+        Context previous = ctx.attach();
+        try {
+            it = call.get();
+        } finally {
+            ctx.detach(previous);
+        }
+        Iterator<T> items = new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                if (it.hasNext()) return true;
+                ctx.cancel(null);
+                return false;
+            }
+
+            @Override
+            public T next() {
+                return mapper.apply(it.next());
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(items, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> ctx.cancel(null));
+    }
+
+    public Stream<Server> streamServers(PageQuery query) {
+        ListServersRequest req = ListServersRequest.newBuilder().setUserId(query.getUserId()).setNodeId(query.getNodeId()).build();
+        return stream(() -> stub.streamServers(req), Server::new);
+    }
+
+    public BatchResult<Server> getServers(Collection<String> ids) {
+        return getServers(ids, Batch.DEFAULT_CONCURRENCY);
+    }
+
+    public BatchResult<Server> getServers(Collection<String> ids, int concurrency) {
+        return Paged.await(futures.getServers(ids, concurrency));
+    }
+
+    public Paged<Server> pageServers() {
+        return pageServers(PageQuery.create());
+    }
+
+    public Paged<Server> pageServers(PageQuery query) {
+        return paged(query, futures.serverPages(query));
+    }
+
     public List<Server> listServersByUser(String userId) {
         ListServersResponse resp = stub.listServers(ListServersRequest.newBuilder().setUserId(userId).build());
         List<Server> out = new ArrayList<>();
@@ -45,7 +122,7 @@ public class PanelAPI {
                 .setMemory(memory).setCpu(cpu).setDisk(disk).build()));
     }
 
-    public void deleteServer(String id) { stub.deleteServer(IDRequest.newBuilder().setId(id).build()); }
+    public void deleteServer(String id) { write(SERVER, id, () -> stub.deleteServer(IDRequest.newBuilder().setId(id).build())); }
 
     public Server updateServer(String id, String name, Integer memory, Integer cpu, Integer disk) {
         UpdateServerRequest.Builder req = UpdateServerRequest.newBuilder().setId(id);
@@ -53,18 +130,18 @@ public class PanelAPI {
         if (memory != null) req.setMemory(memory);
         if (cpu != null) req.setCpu(cpu);
         if (disk != null) req.setDisk(disk);
-        return new Server(stub.updateServer(req.build()));
+        return write(SERVER, id, () -> new Server(stub.updateServer(req.build())));
     }
-    public void startServer(String id) { stub.startServer(IDRequest.newBuilder().setId(id).build()); }
-    public void stopServer(String id) { stub.stopServer(IDRequest.newBuilder().setId(id).build()); }
-    public void restartServer(String id) { stub.restartServer(IDRequest.newBuilder().setId(id).build()); }
-    public void killServer(String id) { stub.killServer(IDRequest.newBuilder().setId(id).build()); }
-    public void suspendServer(String id) { stub.suspendServer(IDRequest.newBuilder().setId(id).build()); }
-    public void unsuspendServer(String id) { stub.unsuspendServer(IDRequest.newBuilder().setId(id).build()); }
-    public void reinstallServer(String id) { stub.reinstallServer(IDRequest.newBuilder().setId(id).build()); }
+    public void startServer(String id) { write(SERVER, id, () -> stub.startServer(IDRequest.newBuilder().setId(id).build())); }
+    public void stopServer(String id) { write(SERVER, id, () -> stub.stopServer(IDRequest.newBuilder().setId(id).build())); }
+    public void restartServer(String id) { write(SERVER, id, () -> stub.restartServer(IDRequest.newBuilder().setId(id).build())); }
+    public void killServer(String id) { write(SERVER, id, () -> stub.killServer(IDRequest.newBuilder().setId(id).build())); }
+    public void suspendServer(String id) { write(SERVER, id, () -> stub.suspendServer(IDRequest.newBuilder().setId(id).build())); }
+    public void unsuspendServer(String id) { write(SERVER, id, () -> stub.unsuspendServer(IDRequest.newBuilder().setId(id).build())); }
+    public void reinstallServer(String id) { write(SERVER, id, () -> stub.reinstallServer(IDRequest.newBuilder().setId(id).build())); }
 
     public void transferServer(String serverId, String targetNodeId) {
-        stub.transferServer(TransferServerRequest.newBuilder().setServerId(serverId).setTargetNodeId(targetNodeId).build());
+        write(SERVER, serverId, () -> stub.transferServer(TransferServerRequest.newBuilder().setServerId(serverId).setTargetNodeId(targetNodeId).build()));
     }
 
     public List<String> getConsoleLog(String serverId, int lines) {
@@ -108,15 +185,15 @@ public class PanelAPI {
     }
 
     public void addAllocation(String serverId, int port) {
-        stub.addAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build());
+        write(SERVER, serverId, () -> stub.addAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build()));
     }
 
     public void deleteAllocation(String serverId, int port) {
-        stub.deleteAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build());
+        write(SERVER, serverId, () -> stub.deleteAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build()));
     }
 
     public void setPrimaryAllocation(String serverId, int port) {
-        stub.setPrimaryAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build());
+        write(SERVER, serverId, () -> stub.setPrimaryAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build()));
     }
 
     public void updateServerVariables(String serverId, Map<String, String> variables) {
@@ -132,7 +209,7 @@ public class PanelAPI {
     }
 
     public User getUser(String id) {
-        return new User(stub.getUser(IDRequest.newBuilder().setId(id).build()));
+        return read(USER, id, () -> new User(stub.getUser(IDRequest.newBuilder().setId(id).build())));
     }
 
     public User getUserByEmail(String email) {
@@ -152,6 +229,27 @@ public class PanelAPI {
         return out;
     }
 
+    public BatchResult<User> getUsers(Collection<String> ids) {
+        return getUsers(ids, Batch.DEFAULT_CONCURRENCY);
+    }
+
+    public BatchResult<User> getUsers(Collection<String> ids, int concurrency) {
+        return Paged.await(futures.getUsers(ids, concurrency));
+    }
+
+    public Stream<User> streamUsers(PageQuery query) {
+        ListUsersRequest req = ListUsersRequest.newBuilder().setSearch(query.getSearch()).setFilter(query.getFilter()).build();
+        return stream(() -> stub.streamUsers(req), User::new);
+    }
+
+    public Paged<User> pageUsers() {
+        return pageUsers(PageQuery.create());
+    }
+
+    public Paged<User> pageUsers(PageQuery query) {
+        return paged(query, futures.userPages(query));
+    }
+
     public User createUser(String email, String username, String password) {
         return new User(stub.createUser(CreateUserRequest.newBuilder()
                 .setEmail(email).setUsername(username).setPassword(password).build()));
@@ -161,15 +259,15 @@ public class PanelAPI {
         UpdateUserRequest.Builder req = UpdateUserRequest.newBuilder().setId(id);
         if (username != null) req.setUsername(username);
         if (email != null) req.setEmail(email);
-        return new User(stub.updateUser(req.build()));
+        return write(USER, id, () -> new User(stub.updateUser(req.build())));
     }
 
-    public void deleteUser(String id) { stub.deleteUser(IDRequest.newBuilder().setId(id).build()); }
-    public void banUser(String id) { stub.banUser(IDRequest.newBuilder().setId(id).build()); }
-    public void unbanUser(String id) { stub.unbanUser(IDRequest.newBuilder().setId(id).build()); }
-    public void setAdmin(String id) { stub.setAdmin(IDRequest.newBuilder().setId(id).build()); }
-    public void revokeAdmin(String id) { stub.revokeAdmin(IDRequest.newBuilder().setId(id).build()); }
-    public void forcePasswordReset(String id) { stub.forcePasswordReset(IDRequest.newBuilder().setId(id).build()); }
+    public void deleteUser(String id) { write(USER, id, () -> stub.deleteUser(IDRequest.newBuilder().setId(id).build())); }
+    public void banUser(String id) { write(USER, id, () -> stub.banUser(IDRequest.newBuilder().setId(id).build())); }
+    public void unbanUser(String id) { write(USER, id, () -> stub.unbanUser(IDRequest.newBuilder().setId(id).build())); }
+    public void setAdmin(String id) { write(USER, id, () -> stub.setAdmin(IDRequest.newBuilder().setId(id).build())); }
+    public void revokeAdmin(String id) { write(USER, id, () -> stub.revokeAdmin(IDRequest.newBuilder().setId(id).build())); }
+    public void forcePasswordReset(String id) { write(USER, id, () -> stub.forcePasswordReset(IDRequest.newBuilder().setId(id).build())); }
 
     public void setUserResources(String userId, Integer ramLimit, Integer cpuLimit, Integer diskLimit, Integer serverLimit) {
         SetUserResourcesRequest.Builder req = SetUserResourcesRequest.newBuilder().setUserId(userId);
@@ -177,7 +275,7 @@ public class PanelAPI {
         if (cpuLimit != null) req.setCpuLimit(cpuLimit);
         if (diskLimit != null) req.setDiskLimit(diskLimit);
         if (serverLimit != null) req.setServerLimit(serverLimit);
-        stub.setUserResources(req.build());
+        write(USER, userId, () -> stub.setUserResources(req.build()));
     }
 
     public List<Node> listNodes() {
@@ -190,7 +288,7 @@ public class PanelAPI {
     }
 
     public Node getNode(String id) {
-        return new Node(stub.getNode(IDRequest.newBuilder().setId(id).build()));
+        return read(NODE, id, () -> new Node(stub.getNode(IDRequest.newBuilder().setId(id).build())));
     }
 
     public NodeWithToken createNode(String name, String fqdn, int port) {
@@ -199,7 +297,7 @@ public class PanelAPI {
         return new NodeWithToken(new Node(resp.getNode()), resp.getToken());
     }
 
-    public void deleteNode(String id) { stub.deleteNode(IDRequest.newBuilder().setId(id).build()); }
+    public void deleteNode(String id) { write(NODE, id, () -> stub.deleteNode(IDRequest.newBuilder().setId(id).build())); }
 
     public String resetNodeToken(String id) {
         return stub.resetNodeToken(IDRequest.newBuilder().setId(id).build()).getToken();
@@ -435,6 +533,15 @@ public class PanelAPI {
         return out;
     }
 
+    public Stream<ActivityLog> streamActivityLogs(PageQuery query) {
+        GetLogsRequest req = GetLogsRequest.newBuilder().setSearch(query.getSearch()).setFilter(query.getFilter()).build();
+        return stream(() -> stub.streamActivityLogs(req), ActivityLog::new);
+    }
+
+    public Paged<ActivityLog> pageActivityLogs(PageQuery query) {
+        return paged(query, futures.activityLogPages(query));
+    }
+
     public String getKV(String key) {
         KVResponse resp = stub.getKV(KVRequest.newBuilder().setKey(key).build());
         return resp.getFound() ? resp.getValue() : null;
@@ -494,6 +601,18 @@ public class PanelAPI {
         return resp.getData().toByteArray();
     }
 
+    public Map<String, Object> callPluginPayload(String pluginId, String method, Map<String, Object> data) throws Exception {
+        return callPluginPayload(pluginId, method, data, PayloadCodec.JSON);
+    }
+
+    public Map<String, Object> callPluginPayload(String pluginId, String method, Map<String, Object> data, PayloadCodec codec) throws Exception {
+        CallPluginRequest.Builder req = CallPluginRequest.newBuilder().setPluginId(pluginId).setMethod(method);
+        if (data != null) req.setData(codec.encode(data));
+        CallPluginResponse resp = stub.callPlugin(req.build());
+        if (!resp.getError().isEmpty()) throw new Exception(resp.getError());
+        return codec.decode(resp.getData());
+    }
+
     public static class HTTPResponse {
         public final int status;
         public final Map<String, String> headers;
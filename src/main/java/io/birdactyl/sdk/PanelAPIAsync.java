@@ -10,12 +10,21 @@ import io.birdactyl.sdk.proto.*;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static io.birdactyl.sdk.EntityCache.Type.*;
+
 public class PanelAPIAsync {
     private static final Gson gson = new Gson();
     private final PanelServiceGrpc.PanelServiceFutureStub stub;
+    private final PanelServiceGrpc.PanelServiceStub streamStub;
     private final Executor executor;
+    private EntityCache cache;
+    private final SingleFlight flights = new SingleFlight();
+    private boolean coalesce = true;
 
     public PanelAPIAsync(PanelServiceGrpc.PanelServiceFutureStub stub) {
         this(stub, MoreExecutors.directExecutor());
@@ -23,9 +32,53 @@ public class PanelAPIAsync {
 
     public PanelAPIAsync(PanelServiceGrpc.PanelServiceFutureStub stub, Executor executor) {
         this.stub = stub;
+        this.streamStub = PanelServiceGrpc.newStub(stub.getChannel());
         this.executor = executor;
     }
 
+    public PanelAPIAsync coalesce(boolean enabled) {
+        this.coalesce = enabled;
+        return this;
+    }
+
+    public long coalescedCount() {
+        return flights.coalescedCount();
+    }
+
+    public long uniqueCallCount() {
+        return flights.callCount();
+    }
+
+    PanelAPIAsync entityCache(EntityCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    private <V> CompletableFuture<V> read(EntityCache.Type type, String id, Supplier<CompletableFuture<V>> call) {
+        Supplier<CompletableFuture<V>> load = () -> shared(type.name() + ":" + id, call);
+        return cache != null ? cache.getAsync(type, id, load) : load.get();
+    }
+
+    private <V> CompletableFuture<V> write(EntityCache.Type type, String id, Supplier<CompletableFuture<V>> call) {
+        String key = type.name() + ":" + id;
+        flights.forget(key);
+        CompletableFuture<V> result = cache != null ? cache.writeAsync(type, id, call) : call.get();
+        return result.whenComplete((r, t) -> flights.forget(key));
+    }
+
+    private <V> CompletableFuture<V> shared(String key, Supplier<CompletableFuture<V>> call) {
+        return coalesce ? flights.run(key, call) : call.get();
+    }
+
+    private <V> CompletableFuture<List<V>> sharedList(String key, Supplier<CompletableFuture<List<V>>> call) {
+        return coalesce ? flights.run(key, call, ArrayList::new) : call.get();
+    }
+
+    private <V> CompletableFuture<V> forget(String key, Supplier<CompletableFuture<V>> write) {
+        flights.forget(key);
+        return write.get().whenComplete((r, t) -> flights.forget(key));
+    }
+
     private <T, R> CompletableFuture<R> toCompletable(ListenableFuture<T> future, java.util.function.Function<T, R> mapper) {
         CompletableFuture<R> cf = new CompletableFuture<>();
         Futures.addCallback(future, new FutureCallback<T>() {
@@ -65,7 +118,7 @@ public class PanelAPIAsync {
     }
 
     public CompletableFuture<PanelAPI.Server> getServer(String id) {
-        return toCompletable(stub.getServer(IDRequest.newBuilder().setId(id).build()), PanelAPI.Server::new);
+        return read(SERVER, id, () -> toCompletable(stub.getServer(IDRequest.newBuilder().setId(id).build()), PanelAPI.Server::new));
     }
 
     public CompletableFuture<List<PanelAPI.Server>> listServers() {
@@ -73,6 +126,30 @@ public class PanelAPIAsync {
                 resp -> resp.getServersList().stream().map(PanelAPI.Server::new).collect(Collectors.toList()));
     }
 
+    public CompletableFuture<BatchResult<PanelAPI.Server>> getServers(Collection<String> ids) {
+        return getServers(ids, Batch.DEFAULT_CONCURRENCY);
+    }
+
+    public CompletableFuture<BatchResult<PanelAPI.Server>> getServers(Collection<String> ids, int concurrency) {
+        return Batch.run(ids, concurrency, this::getServer);
+    }
+
+    public Flow.Publisher<PanelAPI.Server> streamServers(PageQuery query) {
+        ListServersRequest req = ListServersRequest.newBuilder().setUserId(query.getUserId()).setNodeId(query.getNodeId()).build();
+        return new StreamPublisher<>(streamStub::streamServers, req, PanelAPI.Server::new);
+    }
+
+    public Flow.Publisher<PanelAPI.Server> publishServers(PageQuery query) {
+        return new PagePublisher<>(serverPages(query), query.getPageSize(), query.isPrefetch());
+    }
+
+    IntFunction<CompletableFuture<Page<PanelAPI.Server>>> serverPages(PageQuery query) {
+        ListServersRequest base = ListServersRequest.newBuilder()
+                .setUserId(query.getUserId()).setNodeId(query.getNodeId()).setLimit(query.getPageSize()).build();
+        return offset -> toCompletable(stub.listServers(base.toBuilder().setOffset(offset).build()),
+                resp -> new Page<>(resp.getServersList().stream().map(PanelAPI.Server::new).collect(Collectors.toList()), resp.getTotal()));
+    }
+
     public CompletableFuture<List<PanelAPI.Server>> listServersByUser(String userId) {
         return toCompletable(stub.listServers(ListServersRequest.newBuilder().setUserId(userId).build()),
                 resp -> resp.getServersList().stream().map(PanelAPI.Server::new).collect(Collectors.toList()));
@@ -85,7 +162,7 @@ public class PanelAPIAsync {
     }
 
     public CompletableFuture<Void> deleteServer(String id) {
-        return toCompletableVoid(stub.deleteServer(IDRequest.newBuilder().setId(id).build()));
+        return write(SERVER, id, () -> toCompletableVoid(stub.deleteServer(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<PanelAPI.Server> updateServer(String id, String name, Integer memory, Integer cpu, Integer disk) {
@@ -94,39 +171,39 @@ public class PanelAPIAsync {
         if (memory != null) req.setMemory(memory);
         if (cpu != null) req.setCpu(cpu);
         if (disk != null) req.setDisk(disk);
-        return toCompletable(stub.updateServer(req.build()), PanelAPI.Server::new);
+        return write(SERVER, id, () -> toCompletable(stub.updateServer(req.build()), PanelAPI.Server::new));
     }
 
     public CompletableFuture<Void> startServer(String id) {
-        return toCompletableVoid(stub.startServer(IDRequest.newBuilder().setId(id).build()));
+        return write(SERVER, id, () -> toCompletableVoid(stub.startServer(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> stopServer(String id) {
-        return toCompletableVoid(stub.stopServer(IDRequest.newBuilder().setId(id).build()));
+        return write(SERVER, id, () -> toCompletableVoid(stub.stopServer(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> restartServer(String id) {
-        return toCompletableVoid(stub.restartServer(IDRequest.newBuilder().setId(id).build()));
+        return write(SERVER, id, () -> toCompletableVoid(stub.restartServer(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> killServer(String id) {
-        return toCompletableVoid(stub.killServer(IDRequest.newBuilder().setId(id).build()));
+        return write(SERVER, id, () -> toCompletableVoid(stub.killServer(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> suspendServer(String id) {
-        return toCompletableVoid(stub.suspendServer(IDRequest.newBuilder().setId(id).build()));
+        return write(SERVER, id, () -> toCompletableVoid(stub.suspendServer(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> unsuspendServer(String id) {
-        return toCompletableVoid(stub.unsuspendServer(IDRequest.newBuilder().setId(id).build()));
+        return write(SERVER, id, () -> toCompletableVoid(stub.unsuspendServer(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> reinstallServer(String id) {
-        return toCompletableVoid(stub.reinstallServer(IDRequest.newBuilder().setId(id).build()));
+        return write(SERVER, id, () -> toCompletableVoid(stub.reinstallServer(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> transferServer(String serverId, String targetNodeId) {
-        return toCompletableVoid(stub.transferServer(TransferServerRequest.newBuilder().setServerId(serverId).setTargetNodeId(targetNodeId).build()));
+        return write(SERVER, serverId, () -> toCompletableVoid(stub.transferServer(TransferServerRequest.newBuilder().setServerId(serverId).setTargetNodeId(targetNodeId).build())));
     }
 
     public CompletableFuture<List<String>> getConsoleLog(String serverId, int lines) {
@@ -144,15 +221,15 @@ public class PanelAPIAsync {
     }
 
     public CompletableFuture<Void> addAllocation(String serverId, int port) {
-        return toCompletableVoid(stub.addAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build()));
+        return write(SERVER, serverId, () -> toCompletableVoid(stub.addAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build())));
     }
 
     public CompletableFuture<Void> deleteAllocation(String serverId, int port) {
-        return toCompletableVoid(stub.deleteAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build()));
+        return write(SERVER, serverId, () -> toCompletableVoid(stub.deleteAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build())));
     }
 
     public CompletableFuture<Void> setPrimaryAllocation(String serverId, int port) {
-        return toCompletableVoid(stub.setPrimaryAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build()));
+        return write(SERVER, serverId, () -> toCompletableVoid(stub.setPrimaryAllocation(AllocationRequest.newBuilder().setServerId(serverId).setPort(port).build())));
     }
 
     public CompletableFuture<Void> updateServerVariables(String serverId, Map<String, String> variables) {
@@ -168,15 +245,15 @@ public class PanelAPIAsync {
     }
 
     public CompletableFuture<PanelAPI.User> getUser(String id) {
-        return toCompletable(stub.getUser(IDRequest.newBuilder().setId(id).build()), PanelAPI.User::new);
+        return read(USER, id, () -> toCompletable(stub.getUser(IDRequest.newBuilder().setId(id).build()), PanelAPI.User::new));
     }
 
     public CompletableFuture<PanelAPI.User> getUserByEmail(String email) {
-        return toCompletable(stub.getUserByEmail(EmailRequest.newBuilder().setEmail(email).build()), PanelAPI.User::new);
+        return shared("email:" + email, () -> toCompletable(stub.getUserByEmail(EmailRequest.newBuilder().setEmail(email).build()), PanelAPI.User::new));
     }
 
     public CompletableFuture<PanelAPI.User> getUserByUsername(String username) {
-        return toCompletable(stub.getUserByUsername(UsernameRequest.newBuilder().setUsername(username).build()), PanelAPI.User::new);
+        return shared("username:" + username, () -> toCompletable(stub.getUserByUsername(UsernameRequest.newBuilder().setUsername(username).build()), PanelAPI.User::new));
     }
 
     public CompletableFuture<List<PanelAPI.User>> listUsers() {
@@ -184,6 +261,30 @@ public class PanelAPIAsync {
                 resp -> resp.getUsersList().stream().map(PanelAPI.User::new).collect(Collectors.toList()));
     }
 
+    public CompletableFuture<BatchResult<PanelAPI.User>> getUsers(Collection<String> ids) {
+        return getUsers(ids, Batch.DEFAULT_CONCURRENCY);
+    }
+
+    public CompletableFuture<BatchResult<PanelAPI.User>> getUsers(Collection<String> ids, int concurrency) {
+        return Batch.run(ids, concurrency, this::getUser);
+    }
+
+    public Flow.Publisher<PanelAPI.User> streamUsers(PageQuery query) {
+        ListUsersRequest req = ListUsersRequest.newBuilder().setSearch(query.getSearch()).setFilter(query.getFilter()).build();
+        return new StreamPublisher<>(streamStub::streamUsers, req, PanelAPI.User::new);
+    }
+
+    public Flow.Publisher<PanelAPI.User> publishUsers(PageQuery query) {
+        return new PagePublisher<>(userPages(query), query.getPageSize(), query.isPrefetch());
+    }
+
+    IntFunction<CompletableFuture<Page<PanelAPI.User>>> userPages(PageQuery query) {
+        ListUsersRequest base = ListUsersRequest.newBuilder()
+                .setSearch(query.getSearch()).setFilter(query.getFilter()).setLimit(query.getPageSize()).build();
+        return offset -> toCompletable(stub.listUsers(base.toBuilder().setOffset(offset).build()),
+                resp -> new Page<>(resp.getUsersList().stream().map(PanelAPI.User::new).collect(Collectors.toList()), resp.getTotal()));
+    }
+
     public CompletableFuture<PanelAPI.User> createUser(String email, String username, String password) {
         return toCompletable(stub.createUser(CreateUserRequest.newBuilder()
                 .setEmail(email).setUsername(username).setPassword(password).build()), PanelAPI.User::new);
@@ -193,31 +294,31 @@ public class PanelAPIAsync {
         UpdateUserRequest.Builder req = UpdateUserRequest.newBuilder().setId(id);
         if (username != null) req.setUsername(username);
         if (email != null) req.setEmail(email);
-        return toCompletable(stub.updateUser(req.build()), PanelAPI.User::new);
+        return write(USER, id, () -> toCompletable(stub.updateUser(req.build()), PanelAPI.User::new));
     }
 
     public CompletableFuture<Void> deleteUser(String id) {
-        return toCompletableVoid(stub.deleteUser(IDRequest.newBuilder().setId(id).build()));
+        return write(USER, id, () -> toCompletableVoid(stub.deleteUser(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> banUser(String id) {
-        return toCompletableVoid(stub.banUser(IDRequest.newBuilder().setId(id).build()));
+        return write(USER, id, () -> toCompletableVoid(stub.banUser(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> unbanUser(String id) {
-        return toCompletableVoid(stub.unbanUser(IDRequest.newBuilder().setId(id).build()));
+        return write(USER, id, () -> toCompletableVoid(stub.unbanUser(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> setAdmin(String id) {
-        return toCompletableVoid(stub.setAdmin(IDRequest.newBuilder().setId(id).build()));
+        return write(USER, id, () -> toCompletableVoid(stub.setAdmin(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> revokeAdmin(String id) {
-        return toCompletableVoid(stub.revokeAdmin(IDRequest.newBuilder().setId(id).build()));
+        return write(USER, id, () -> toCompletableVoid(stub.revokeAdmin(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> forcePasswordReset(String id) {
-        return toCompletableVoid(stub.forcePasswordReset(IDRequest.newBuilder().setId(id).build()));
+        return write(USER, id, () -> toCompletableVoid(stub.forcePasswordReset(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<Void> setUserResources(String userId, Integer ramLimit, Integer cpuLimit, Integer diskLimit, Integer serverLimit) {
@@ -226,25 +327,25 @@ public class PanelAPIAsync {
         if (cpuLimit != null) req.setCpuLimit(cpuLimit);
         if (diskLimit != null) req.setDiskLimit(diskLimit);
         if (serverLimit != null) req.setServerLimit(serverLimit);
-        return toCompletableVoid(stub.setUserResources(req.build()));
+        return write(USER, userId, () -> toCompletableVoid(stub.setUserResources(req.build())));
     }
 
     public CompletableFuture<List<PanelAPI.Node>> listNodes() {
-        return toCompletable(stub.listNodes(Empty.getDefaultInstance()),
-                resp -> resp.getNodesList().stream().map(PanelAPI.Node::new).collect(Collectors.toList()));
+        return sharedList("nodes", () -> toCompletable(stub.listNodes(Empty.getDefaultInstance()),
+                resp -> resp.getNodesList().stream().map(PanelAPI.Node::new).collect(Collectors.toList())));
     }
 
     public CompletableFuture<PanelAPI.Node> getNode(String id) {
-        return toCompletable(stub.getNode(IDRequest.newBuilder().setId(id).build()), PanelAPI.Node::new);
+        return read(NODE, id, () -> toCompletable(stub.getNode(IDRequest.newBuilder().setId(id).build()), PanelAPI.Node::new));
     }
 
     public CompletableFuture<PanelAPI.NodeWithToken> createNode(String name, String fqdn, int port) {
-        return toCompletable(stub.createNode(CreateNodeRequest.newBuilder().setName(name).setFqdn(fqdn).setPort(port).build()),
-                resp -> new PanelAPI.NodeWithToken(new PanelAPI.Node(resp.getNode()), resp.getToken()));
+        return forget("nodes", () -> toCompletable(stub.createNode(CreateNodeRequest.newBuilder().setName(name).setFqdn(fqdn).setPort(port).build()),
+                resp -> new PanelAPI.NodeWithToken(new PanelAPI.Node(resp.getNode()), resp.getToken())));
     }
 
     public CompletableFuture<Void> deleteNode(String id) {
-        return toCompletableVoid(stub.deleteNode(IDRequest.newBuilder().setId(id).build()));
+        return forget("nodes", () -> write(NODE, id, () -> toCompletableVoid(stub.deleteNode(IDRequest.newBuilder().setId(id).build()))));
     }
 
     public CompletableFuture<String> resetNodeToken(String id) {
@@ -370,8 +471,8 @@ public class PanelAPIAsync {
     }
 
     public CompletableFuture<List<PanelAPI.Package>> listPackages() {
-        return toCompletable(stub.listPackages(Empty.getDefaultInstance()),
-                resp -> resp.getPackagesList().stream().map(PanelAPI.Package::new).collect(Collectors.toList()));
+        return sharedList("packages", () -> toCompletable(stub.listPackages(Empty.getDefaultInstance()),
+                resp -> resp.getPackagesList().stream().map(PanelAPI.Package::new).collect(Collectors.toList())));
     }
 
     public CompletableFuture<PanelAPI.Package> getPackage(String id) {
@@ -379,10 +480,10 @@ public class PanelAPIAsync {
     }
 
     public CompletableFuture<PanelAPI.Package> createPackage(String name, String description, String dockerImage, String startupCmd, String stopCmd, String configFiles, int memory, int cpu, int disk, boolean isPublic) {
-        return toCompletable(stub.createPackage(CreatePackageRequest.newBuilder()
+        return forget("packages", () -> toCompletable(stub.createPackage(CreatePackageRequest.newBuilder()
                 .setName(name).setDescription(description).setDockerImage(dockerImage)
                 .setStartupCommand(startupCmd).setStopCommand(stopCmd).setConfigFiles(configFiles)
-                .setDefaultMemory(memory).setDefaultCpu(cpu).setDefaultDisk(disk).setIsPublic(isPublic).build()), PanelAPI.Package::new);
+                .setDefaultMemory(memory).setDefaultCpu(cpu).setDefaultDisk(disk).setIsPublic(isPublic).build()), PanelAPI.Package::new));
     }
 
     public CompletableFuture<PanelAPI.Package> updatePackage(String id, String name, String description, Integer memory, Integer cpu, Integer disk) {
@@ -392,11 +493,11 @@ public class PanelAPIAsync {
         if (memory != null) req.setDefaultMemory(memory);
         if (cpu != null) req.setDefaultCpu(cpu);
         if (disk != null) req.setDefaultDisk(disk);
-        return toCompletable(stub.updatePackage(req.build()), PanelAPI.Package::new);
+        return forget("packages", () -> toCompletable(stub.updatePackage(req.build()), PanelAPI.Package::new));
     }
 
     public CompletableFuture<Void> deletePackage(String id) {
-        return toCompletableVoid(stub.deletePackage(IDRequest.newBuilder().setId(id).build()));
+        return forget("packages", () -> toCompletableVoid(stub.deletePackage(IDRequest.newBuilder().setId(id).build())));
     }
 
     public CompletableFuture<List<PanelAPI.IPBan>> listIPBans() {
@@ -431,16 +532,16 @@ public class PanelAPIAsync {
     }
 
     public CompletableFuture<PanelAPI.Settings> getSettings() {
-        return toCompletable(stub.getSettings(Empty.getDefaultInstance()),
-                s -> new PanelAPI.Settings(s.getRegistrationEnabled(), s.getServerCreationEnabled()));
+        return shared("settings", () -> toCompletable(stub.getSettings(Empty.getDefaultInstance()),
+                s -> new PanelAPI.Settings(s.getRegistrationEnabled(), s.getServerCreationEnabled())));
     }
 
     public CompletableFuture<Void> setRegistrationEnabled(boolean enabled) {
-        return toCompletableVoid(stub.setRegistrationEnabled(BoolRequest.newBuilder().setValue(enabled).build()));
+        return forget("settings", () -> toCompletableVoid(stub.setRegistrationEnabled(BoolRequest.newBuilder().setValue(enabled).build())));
     }
 
     public CompletableFuture<Void> setServerCreationEnabled(boolean enabled) {
-        return toCompletableVoid(stub.setServerCreationEnabled(BoolRequest.newBuilder().setValue(enabled).build()));
+        return forget("settings", () -> toCompletableVoid(stub.setServerCreationEnabled(BoolRequest.newBuilder().setValue(enabled).build())));
     }
 
     public CompletableFuture<List<PanelAPI.ActivityLog>> getActivityLogs(int limit) {
@@ -448,17 +549,33 @@ public class PanelAPIAsync {
                 resp -> resp.getLogsList().stream().map(PanelAPI.ActivityLog::new).collect(Collectors.toList()));
     }
 
+    public Flow.Publisher<PanelAPI.ActivityLog> streamActivityLogs(PageQuery query) {
+        GetLogsRequest req = GetLogsRequest.newBuilder().setSearch(query.getSearch()).setFilter(query.getFilter()).build();
+        return new StreamPublisher<>(streamStub::streamActivityLogs, req, PanelAPI.ActivityLog::new);
+    }
+
+    public Flow.Publisher<PanelAPI.ActivityLog> publishActivityLogs(PageQuery query) {
+        return new PagePublisher<>(activityLogPages(query), query.getPageSize(), query.isPrefetch());
+    }
+
+    IntFunction<CompletableFuture<Page<PanelAPI.ActivityLog>>> activityLogPages(PageQuery query) {
+        GetLogsRequest base = GetLogsRequest.newBuilder()
+                .setSearch(query.getSearch()).setFilter(query.getFilter()).setLimit(query.getPageSize()).build();
+        return offset -> toCompletable(stub.getActivityLogs(base.toBuilder().setOffset(offset).build()),
+                resp -> new Page<>(resp.getLogsList().stream().map(PanelAPI.ActivityLog::new).collect(Collectors.toList()), resp.getTotal()));
+    }
+
     public CompletableFuture<String> getKV(String key) {
-        return toCompletable(stub.getKV(KVRequest.newBuilder().setKey(key).build()),
-                resp -> resp.getFound() ? resp.getValue() : null);
+        return shared("kv:" + key, () -> toCompletable(stub.getKV(KVRequest.newBuilder().setKey(key).build()),
+                resp -> resp.getFound() ? resp.getValue() : null));
     }
 
     public CompletableFuture<Void> setKV(String key, String value) {
-        return toCompletableVoid(stub.setKV(KVSetRequest.newBuilder().setKey(key).setValue(value).build()));
+        return forget("kv:" + key, () -> toCompletableVoid(stub.setKV(KVSetRequest.newBuilder().setKey(key).setValue(value).build())));
     }
 
     public CompletableFuture<Void> deleteKV(String key) {
-        return toCompletableVoid(stub.deleteKV(KVRequest.newBuilder().setKey(key).build()));
+        return forget("kv:" + key, () -> toCompletableVoid(stub.deleteKV(KVRequest.newBuilder().setKey(key).build())));
     }
 
     @SuppressWarnings("unchecked")
@@ -503,6 +620,19 @@ public class PanelAPIAsync {
         });
     }
 
+    public CompletableFuture<Map<String, Object>> callPluginPayload(String pluginId, String method, Map<String, Object> data) {
+        return callPluginPayload(pluginId, method, data, PayloadCodec.JSON);
+    }
+
+    public CompletableFuture<Map<String, Object>> callPluginPayload(String pluginId, String method, Map<String, Object> data, PayloadCodec codec) {
+        CallPluginRequest.Builder req = CallPluginRequest.newBuilder().setPluginId(pluginId).setMethod(method);
+        if (data != null) req.setData(codec.encode(data));
+        return toCompletable(stub.callPlugin(req.build()), resp -> {
+            if (!resp.getError().isEmpty()) throw new RuntimeException(resp.getError());
+            return codec.decode(resp.getData());
+        });
+    }
+
     public <T> CompletableFuture<List<T>> all(List<CompletableFuture<T>> futures) {
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
                 .thenApply(v -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
@@ -0,0 +1,19 @@
+package io.birdactyl.sdk;
+
+import com.google.protobuf.ByteString;
+import java.util.Map;
+
+public interface PayloadCodec {
+    PayloadCodec JSON = new JsonPayloadCodec();
+    PayloadCodec STRUCT = new StructPayloadCodec();
+
+    String name();
+
+    Map<String, Object> decode(ByteString data);
+
+    ByteString encode(Map<String, Object> value);
+
+    static PayloadCodec named(String name) {
+        return STRUCT.name().equals(name) ? STRUCT : JSON;
+    }
+}
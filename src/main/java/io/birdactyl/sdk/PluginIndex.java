@@ -0,0 +1,5 @@
+package io.birdactyl.sdk;
+
+public interface PluginIndex {
+    void register(BirdactylPlugin plugin);
+}
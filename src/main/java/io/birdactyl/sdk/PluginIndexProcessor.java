@@ -0,0 +1,250 @@
+package io.birdactyl.sdk;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+@SupportedAnnotationTypes({"io.birdactyl.sdk.Mixin", "io.birdactyl.sdk.Route", "io.birdactyl.sdk.OnEvent"})
+public class PluginIndexProcessor extends AbstractProcessor {
+    static final String INDEX_CLASS = "BirdactylPluginIndex";
+
+    private final List<String> statements = new ArrayList<>();
+    private final Map<String, String> instances = new LinkedHashMap<>();
+    private final List<Element> origins = new ArrayList<>();
+    private boolean written;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        if (round.processingOver()) return false;
+
+        int before = statements.size();
+        for (Element e : round.getElementsAnnotatedWith(Mixin.class)) {
+            mixin(e);
+        }
+        for (Element e : round.getElementsAnnotatedWith(Route.class)) {
+            route((ExecutableElement) e);
+        }
+        for (Element e : round.getElementsAnnotatedWith(OnEvent.class)) {
+            onEvent((ExecutableElement) e);
+        }
+        if (statements.size() == before) return false;
+
+        if (written) {
+            error(origins.get(before), "annotated handlers in generated sources are not indexed");
+            return false;
+        }
+        write();
+        written = true;
+        return false;
+    }
+
+    private void mixin(Element e) {
+        if (e.getKind() != ElementKind.CLASS || !e.getModifiers().contains(Modifier.PUBLIC)
+                || e.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(e, "@Mixin classes must be public and concrete");
+            return;
+        }
+        TypeElement type = (TypeElement) e;
+        if (!isSubtype(type.asType(), "io.birdactyl.sdk.MixinClass")) {
+            error(e, "@Mixin classes must extend MixinClass");
+            return;
+        }
+        if (!hasPublicNoArgConstructor(type)) {
+            error(e, "@Mixin classes need a public no-arg constructor");
+            return;
+        }
+        if (!instantiable(type)) {
+            error(e, "@Mixin classes must be top-level or public static nested classes");
+            return;
+        }
+        Mixin m = e.getAnnotation(Mixin.class);
+        StringBuilder sb = new StringBuilder("plugin.mixin(")
+                .append(literal(m.value())).append(", ").append(m.priority())
+                .append(", init(new ").append(type.getQualifiedName()).append("(), plugin)::handle)");
+        if (m.cacheTtl() > 0) {
+            sb.append(".cache(").append(m.cacheTtl()).append("L, java.util.concurrent.TimeUnit.")
+                    .append(m.cacheTtlUnit().name()).append(", ").append(m.cacheSize()).append("L)");
+        }
+        add(e, sb.append(';').toString());
+    }
+
+    private void route(ExecutableElement method) {
+        Route r = method.getAnnotation(Route.class);
+        Boolean async = signature(method, "io.birdactyl.sdk.Request", "io.birdactyl.sdk.Response", "@Route");
+        String target = target(method);
+        if (async == null || target == null) return;
+        StringBuilder sb = new StringBuilder("plugin.").append(async ? "routeAsync(" : "route(")
+                .append(literal(r.method())).append(", ").append(literal(r.value())).append(", ").append(target).append(')');
+        if (!r.rateLimitPreset().isEmpty()) {
+            sb.append(".rateLimitPreset(").append(literal(r.rateLimitPreset())).append(')');
+        }
+        if (r.requestsPerMinute() > 0) {
+            sb.append(".rateLimit(").append(r.requestsPerMinute()).append(", ").append(r.burstLimit()).append(')');
+        }
+        add(method, guard(method, sb.append(';').toString()));
+    }
+
+    private void onEvent(ExecutableElement method) {
+        OnEvent ev = method.getAnnotation(OnEvent.class);
+        Boolean async = signature(method, "io.birdactyl.sdk.Event", "io.birdactyl.sdk.EventResult", "@OnEvent");
+        String target = target(method);
+        if (async == null || target == null) return;
+        StringBuilder sb = new StringBuilder("plugin.").append(async ? "onEventAsync(" : "onEvent(")
+                .append(literal(ev.value())).append(", ").append(target).append(')');
+        if (ev.priority() != 0) {
+            sb.append(".priority(").append(ev.priority()).append(')');
+        }
+        add(method, guard(method, sb.append(';').toString()));
+    }
+
+    private Boolean signature(ExecutableElement method, String param, String result, String annotation) {
+        if (method.getParameters().size() != 1 || !isType(method.getParameters().get(0).asType(), param)) {
+            error(method, annotation + " methods must take a single " + simpleName(param));
+            return null;
+        }
+        TypeMirror ret = method.getReturnType();
+        if (isType(ret, result)) return false;
+        if (ret.getKind() == TypeKind.DECLARED && isType(ret, "java.util.concurrent.CompletableFuture")) {
+            List<? extends TypeMirror> args = ((DeclaredType) ret).getTypeArguments();
+            if (args.size() == 1 && isType(args.get(0), result)) return true;
+        }
+        error(method, annotation + " methods must return " + simpleName(result) + " or CompletableFuture<" + simpleName(result) + ">");
+        return null;
+    }
+
+    private String target(ExecutableElement method) {
+        TypeElement owner = (TypeElement) method.getEnclosingElement();
+        if (!method.getModifiers().contains(Modifier.PUBLIC) || !owner.getModifiers().contains(Modifier.PUBLIC)) {
+            error(method, "indexed handler methods and their classes must be public");
+            return null;
+        }
+        String name = method.getSimpleName().toString();
+        String ownerName = owner.getQualifiedName().toString();
+        if (method.getModifiers().contains(Modifier.STATIC)) {
+            return ownerName + "::" + name;
+        }
+        if (isSubtype(owner.asType(), "io.birdactyl.sdk.BirdactylPlugin")) {
+            return "((" + ownerName + ") plugin)::" + name;
+        }
+        if (!hasPublicNoArgConstructor(owner)) {
+            error(method, ownerName + " needs a public no-arg constructor");
+            return null;
+        }
+        if (!instantiable(owner)) {
+            error(method, ownerName + " must be a top-level or public static nested class to hold instance handlers");
+            return null;
+        }
+        String var = instances.computeIfAbsent(ownerName, k -> "handlers" + instances.size());
+        return var + "::" + name;
+    }
+
+    private String guard(ExecutableElement method, String statement) {
+        TypeElement owner = (TypeElement) method.getEnclosingElement();
+        if (method.getModifiers().contains(Modifier.STATIC) || !isSubtype(owner.asType(), "io.birdactyl.sdk.BirdactylPlugin")) {
+            return statement;
+        }
+        return "if (plugin instanceof " + owner.getQualifiedName() + ") {\n    " + statement + "\n}";
+    }
+
+    private void add(Element e, String statement) {
+        statements.add(statement);
+        origins.add(e);
+    }
+
+    private void write() {
+        String pkg = processingEnv.getElementUtils().getPackageOf(origins.get(0)).getQualifiedName().toString();
+        String name = pkg.isEmpty() ? INDEX_CLASS : pkg + "." + INDEX_CLASS;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(name, origins.toArray(new Element[0]));
+            try (Writer w = file.openWriter()) {
+                if (!pkg.isEmpty()) {
+                    w.write("package " + pkg + ";\n\n");
+                }
+                w.write("import io.birdactyl.sdk.BirdactylPlugin;\n");
+                w.write("import io.birdactyl.sdk.MixinClass;\n");
+                w.write("import io.birdactyl.sdk.PluginIndex;\n\n");
+                w.write("public final class " + INDEX_CLASS + " implements PluginIndex {\n");
+                w.write("    @Override\n");
+                w.write("    public void register(BirdactylPlugin plugin) {\n");
+                for (Map.Entry<String, String> e : instances.entrySet()) {
+                    w.write("        " + e.getKey() + " " + e.getValue() + " = new " + e.getKey() + "();\n");
+                }
+                for (String statement : statements) {
+                    w.write("        " + statement.replace("\n", "\n        ") + "\n");
+                }
+                w.write("    }\n\n");
+                w.write("    private static <T extends MixinClass> T init(T mixin, BirdactylPlugin plugin) {\n");
+                w.write("        mixin.init(plugin);\n");
+                w.write("        return mixin;\n");
+                w.write("    }\n");
+                w.write("}\n");
+            }
+            try (Writer w = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    "META-INF/services/io.birdactyl.sdk.PluginIndex", origins.toArray(new Element[0])).openWriter()) {
+                w.write(name + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "failed to write plugin index: " + e.getMessage());
+        }
+    }
+
+    private boolean hasPublicNoArgConstructor(TypeElement type) {
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.CONSTRUCTOR
+                    && ((ExecutableElement) member).getParameters().isEmpty()
+                    && member.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean instantiable(TypeElement type) {
+        Element enclosing = type.getEnclosingElement();
+        if (enclosing.getKind() == ElementKind.PACKAGE) return true;
+        if (!enclosing.getKind().isClass() && !enclosing.getKind().isInterface()) return false;
+        return (type.getModifiers().contains(Modifier.STATIC) || enclosing.getKind().isInterface())
+                && enclosing.getModifiers().contains(Modifier.PUBLIC)
+                && instantiable((TypeElement) enclosing);
+    }
+
+    private boolean isSubtype(TypeMirror type, String name) {
+        TypeElement target = processingEnv.getElementUtils().getTypeElement(name);
+        return target != null && processingEnv.getTypeUtils().isSubtype(
+                processingEnv.getTypeUtils().erasure(type), processingEnv.getTypeUtils().erasure(target.asType()));
+    }
+
+    private boolean isType(TypeMirror type, String name) {
+        TypeElement target = processingEnv.getElementUtils().getTypeElement(name);
+        return target != null && processingEnv.getTypeUtils().isSameType(
+                processingEnv.getTypeUtils().erasure(type), processingEnv.getTypeUtils().erasure(target.asType()));
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private static String simpleName(String name) {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    private void error(Element e, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, e);
+    }
+}
@@ -1,8 +1,13 @@
 package io.birdactyl.sdk;
 
 import com.google.gson.Gson;
+import com.google.protobuf.ByteString;
 import io.birdactyl.sdk.proto.HTTPRequest;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -12,16 +17,18 @@ public class Request {
     private final String path;
     private final Map<String, String> headers;
     private final Map<String, String> query;
-    private final byte[] body;
+    private final ByteString body;
     private final String userId;
     private Map<String, String> pathParams;
+    private Map<String, String> headerIndex;
+    private byte[] bodyArray;
 
     public Request(HTTPRequest req) {
         this.method = req.getMethod();
         this.path = req.getPath();
         this.headers = req.getHeadersMap();
         this.query = req.getQueryMap();
-        this.body = req.getBody().toByteArray();
+        this.body = req.getBody();
         this.userId = req.getUserId();
     }
 
@@ -29,11 +36,29 @@ public class Request {
     public String getPath() { return path; }
     public Map<String, String> getHeaders() { return headers; }
     public Map<String, String> getQuery() { return query; }
-    public byte[] getBody() { return body; }
+    public ByteString getBodyBytes() { return body; }
     public String getUserId() { return userId; }
 
+    public byte[] getBody() {
+        if (bodyArray == null) {
+            bodyArray = body.toByteArray();
+        }
+        return bodyArray;
+    }
+
+    public InputStream bodyStream() {
+        return body.newInput();
+    }
+
     public String header(String name) {
-        return headers.getOrDefault(name, headers.get(name.toLowerCase()));
+        String value = headers.get(name);
+        if (value != null) return value;
+        if (headerIndex == null) {
+            Map<String, String> index = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            index.putAll(headers);
+            headerIndex = index;
+        }
+        return headerIndex.get(name);
     }
 
     public String query(String name) {
@@ -80,15 +105,15 @@ public class Request {
     }
 
     public String bodyString() {
-        return new String(body);
+        return body.toStringUtf8();
     }
 
     @SuppressWarnings("unchecked")
     public Map<String, Object> json() {
-        return gson.fromJson(new String(body), Map.class);
+        return json(Map.class);
     }
 
     public <T> T json(Class<T> clazz) {
-        return gson.fromJson(new String(body), clazz);
+        return gson.fromJson(new InputStreamReader(body.newInput(), StandardCharsets.UTF_8), clazz);
     }
 }
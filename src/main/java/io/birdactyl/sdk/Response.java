@@ -1,70 +1,93 @@
 package io.birdactyl.sdk;
 
-import com.google.gson.Gson;
-import java.nio.charset.StandardCharsets;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 public class Response {
-    private static final Gson gson = new Gson();
+    private static final Map<String, String> NO_HEADERS = Collections.emptyMap();
+    private static final Map<String, String> JSON_HEADERS = Collections.singletonMap("Content-Type", "application/json");
+    private static final Map<String, String> TEXT_HEADERS = Collections.singletonMap("Content-Type", "text/plain");
+    private static final Map<String, String> HTML_HEADERS = Collections.singletonMap("Content-Type", "text/html; charset=utf-8");
+
     private final int status;
-    private final Map<String, String> headers;
-    private final byte[] body;
+    private Map<String, String> headers;
+    private boolean sharedHeaders;
+    private final ByteString body;
 
-    private Response(int status, Map<String, String> headers, byte[] body) {
+    private Response(int status, Map<String, String> headers, boolean sharedHeaders, ByteString body) {
         this.status = status;
         this.headers = headers;
+        this.sharedHeaders = sharedHeaders;
         this.body = body;
     }
 
+    private Response(int status, Map<String, String> headers, ByteString body) {
+        this(status, headers, true, body);
+    }
+
     public static Response ok(byte[] body) {
-        return new Response(200, new HashMap<>(), body);
+        return new Response(200, NO_HEADERS, ByteString.copyFrom(body));
     }
 
     public static Response ok(String body) {
-        return new Response(200, new HashMap<>(), body.getBytes(StandardCharsets.UTF_8));
+        return new Response(200, NO_HEADERS, ByteString.copyFromUtf8(body));
+    }
+
+    public static Response ok(ByteString body) {
+        return new Response(200, NO_HEADERS, body);
+    }
+
+    public static Response wrap(byte[] body) {
+        return new Response(200, NO_HEADERS, UnsafeByteOperations.unsafeWrap(body));
+    }
+
+    public static Response wrap(ByteBuffer body) {
+        return new Response(200, NO_HEADERS, UnsafeByteOperations.unsafeWrap(body));
     }
 
     public Response header(String name, String value) {
-        this.headers.put(name, value);
+        mutableHeaders().put(name, value);
         return this;
     }
 
     public Response status(int status) {
-        return new Response(status, this.headers, this.body);
+        return new Response(status, this.headers, this.sharedHeaders, this.body);
     }
 
     public static Response json(Object data) {
-        Map<String, Object> wrapper = new HashMap<>();
-        wrapper.put("success", true);
-        wrapper.put("data", data);
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Content-Type", "application/json");
-        return new Response(200, headers, gson.toJson(wrapper).getBytes(StandardCharsets.UTF_8));
+        return new Response(200, JSON_HEADERS, JsonEnvelope.success(data));
     }
 
     public static Response error(int status, String message) {
-        Map<String, Object> wrapper = new HashMap<>();
-        wrapper.put("success", false);
-        wrapper.put("error", message);
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Content-Type", "application/json");
-        return new Response(status, headers, gson.toJson(wrapper).getBytes(StandardCharsets.UTF_8));
+        return new Response(status, JSON_HEADERS, JsonEnvelope.error(message));
     }
 
     public static Response text(String text) {
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Content-Type", "text/plain");
-        return new Response(200, headers, text.getBytes(StandardCharsets.UTF_8));
+        return new Response(200, TEXT_HEADERS, ByteString.copyFromUtf8(text));
     }
 
     public static Response html(String html) {
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Content-Type", "text/html; charset=utf-8");
-        return new Response(200, headers, html.getBytes(StandardCharsets.UTF_8));
+        return new Response(200, HTML_HEADERS, ByteString.copyFromUtf8(html));
+    }
+
+    private Map<String, String> mutableHeaders() {
+        if (sharedHeaders) {
+            headers = new HashMap<>(headers);
+            sharedHeaders = false;
+        }
+        return headers;
+    }
+
+    Map<String, String> headers() {
+        return headers;
     }
 
     public int getStatus() { return status; }
-    public Map<String, String> getHeaders() { return headers; }
-    public byte[] getBody() { return body; }
+    public Map<String, String> getHeaders() { return mutableHeaders(); }
+    public byte[] getBody() { return body.toByteArray(); }
+    public ByteString getBodyBytes() { return body; }
 }
@@ -0,0 +1,13 @@
+package io.birdactyl.sdk;
+
+import java.lang.annotation.*;
+
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface Route {
+    String value();
+    String method() default "GET";
+    String rateLimitPreset() default "";
+    int requestsPerMinute() default 0;
+    int burstLimit() default 0;
+}
@@ -0,0 +1,182 @@
+package io.birdactyl.sdk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class Router<T> {
+    static final String ANY_METHOD = "*";
+
+    private final Map<String, Node<T>> roots = new ConcurrentHashMap<>();
+    private volatile int maxParams;
+
+    static final class Match<T> {
+        final T value;
+        final Map<String, String> params;
+
+        Match(T value, Map<String, String> params) {
+            this.value = value;
+            this.params = params;
+        }
+
+        boolean hasNamedParams() {
+            return params.size() > (params.containsKey("*") ? 1 : 0);
+        }
+    }
+
+    private static final class Route<T> {
+        final T value;
+        final String[] paramNames;
+
+        Route(T value, String[] paramNames) {
+            this.value = value;
+            this.paramNames = paramNames;
+        }
+    }
+
+    private static final class Prefix<T> {
+        final String prefix;
+        final Route<T> route;
+
+        Prefix(String prefix, Route<T> route) {
+            this.prefix = prefix;
+            this.route = route;
+        }
+    }
+
+    private static final class Node<T> {
+        final Map<String, Node<T>> statics = new ConcurrentHashMap<>();
+        volatile List<Prefix<T>> prefixes = Collections.emptyList();
+        volatile Node<T> param;
+        volatile Route<T> wildcard;
+        volatile Route<T> route;
+    }
+
+    synchronized void add(String method, String pattern, T value) {
+        Node<T> node = roots.computeIfAbsent(method, m -> new Node<>());
+        List<String> names = new ArrayList<>();
+        List<String> segments = segments(pattern);
+        for (int i = 0; i < segments.size(); i++) {
+            String seg = segments.get(i);
+            if (seg.startsWith("*")) {
+                if (i != segments.size() - 1) {
+                    throw new IllegalArgumentException("wildcard must be the last segment: " + pattern);
+                }
+                names.add(seg.length() > 1 ? seg.substring(1) : "*");
+                maxParams = Math.max(maxParams, names.size());
+                node.wildcard = new Route<>(value, names.toArray(new String[0]));
+                return;
+            }
+            if (seg.endsWith("*")) {
+                if (i != segments.size() - 1) {
+                    throw new IllegalArgumentException("wildcard must be the last segment: " + pattern);
+                }
+                names.add("*");
+                maxParams = Math.max(maxParams, names.size());
+                addPrefix(node, seg.substring(0, seg.length() - 1), new Route<>(value, names.toArray(new String[0])));
+                return;
+            }
+            if (seg.startsWith(":")) {
+                names.add(seg.substring(1));
+                if (node.param == null) {
+                    node.param = new Node<>();
+                }
+                node = node.param;
+            } else {
+                node = node.statics.computeIfAbsent(seg, s -> new Node<>());
+            }
+        }
+        maxParams = Math.max(maxParams, names.size());
+        node.route = new Route<>(value, names.toArray(new String[0]));
+    }
+
+    private static <T> void addPrefix(Node<T> node, String prefix, Route<T> route) {
+        List<Prefix<T>> list = new ArrayList<>(node.prefixes);
+        list.removeIf(p -> p.prefix.equals(prefix));
+        list.add(new Prefix<>(prefix, route));
+        list.sort((a, b) -> b.prefix.length() - a.prefix.length());
+        node.prefixes = list;
+    }
+
+    Match<T> match(String method, String path) {
+        Match<T> m = match(roots.get(method), path);
+        if (m == null && !ANY_METHOD.equals(method)) {
+            m = match(roots.get(ANY_METHOD), path);
+        }
+        return m;
+    }
+
+    private Match<T> match(Node<T> root, String path) {
+        if (root == null) return null;
+        String[] captures = new String[maxParams];
+        Route<T> route = find(root, path, skipSlashes(path, 0), captures, 0);
+        if (route == null) return null;
+        if (route.paramNames.length == 0) {
+            return new Match<>(route.value, Collections.emptyMap());
+        }
+        Map<String, String> params = new HashMap<>(route.paramNames.length * 2);
+        for (int i = 0; i < route.paramNames.length; i++) {
+            params.put(route.paramNames[i], captures[i]);
+        }
+        return new Match<>(route.value, params);
+    }
+
+    private Route<T> find(Node<T> node, String path, int pos, String[] captures, int depth) {
+        if (pos >= path.length()) {
+            if (node.route != null) return node.route;
+            Route<T> wildcard = node.wildcard;
+            if (wildcard != null && path.endsWith("/")) {
+                captures[depth] = "";
+                return wildcard;
+            }
+            return null;
+        }
+
+        int end = path.indexOf('/', pos);
+        if (end < 0) end = path.length();
+        int next = skipSlashes(path, end);
+
+        Node<T> child = node.statics.get(path.substring(pos, end));
+        if (child != null) {
+            Route<T> r = find(child, path, next, captures, depth);
+            if (r != null) return r;
+        }
+
+        Node<T> param = node.param;
+        if (param != null) {
+            captures[depth] = path.substring(pos, end);
+            Route<T> r = find(param, path, next, captures, depth + 1);
+            if (r != null) return r;
+        }
+
+        for (Prefix<T> p : node.prefixes) {
+            if (path.startsWith(p.prefix, pos)) {
+                captures[depth] = path.substring(pos + p.prefix.length());
+                return p.route;
+            }
+        }
+
+        Route<T> wildcard = node.wildcard;
+        if (wildcard != null) {
+            captures[depth] = path.substring(pos);
+            return wildcard;
+        }
+        return null;
+    }
+
+    private static int skipSlashes(String path, int pos) {
+        while (pos < path.length() && path.charAt(pos) == '/') pos++;
+        return pos;
+    }
+
+    private static List<String> segments(String pattern) {
+        List<String> out = new ArrayList<>();
+        for (String seg : pattern.split("/")) {
+            if (!seg.isEmpty()) out.add(seg);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,56 @@
+package io.birdactyl.sdk;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+final class SingleFlight {
+    private final Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    <T> CompletableFuture<T> run(String key, Supplier<CompletableFuture<T>> call) {
+        return run(key, call, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> run(String key, Supplier<CompletableFuture<T>> call, Function<T, T> share) {
+        CompletableFuture<T> shared = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return view(existing, share);
+        }
+        calls.incrementAndGet();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((r, t) -> {
+            inFlight.remove(key, shared);
+            if (t != null) {
+                shared.completeExceptionally(t);
+            } else {
+                shared.complete(r);
+            }
+        });
+        return view(shared, share);
+    }
+
+    void forget(String key) {
+        inFlight.remove(key);
+    }
+
+    long callCount() { return calls.get(); }
+    long coalescedCount() { return coalesced.get(); }
+    int inFlight() { return inFlight.size(); }
+
+    private static <T> CompletableFuture<T> view(CompletableFuture<T> shared, Function<T, T> share) {
+        return share != null ? shared.thenApply(v -> v != null ? share.apply(v) : null) : shared.copy();
+    }
+}
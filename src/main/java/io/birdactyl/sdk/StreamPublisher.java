@@ -0,0 +1,127 @@
+package io.birdactyl.sdk;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+final class StreamPublisher<Req, Resp, T> implements Flow.Publisher<T> {
+    private final BiConsumer<Req, ClientResponseObserver<Req, Resp>> call;
+    private final Req request;
+    private final Function<Resp, T> mapper;
+
+    StreamPublisher(BiConsumer<Req, ClientResponseObserver<Req, Resp>> call, Req request, Function<Resp, T> mapper) {
+        this.call = call;
+        this.request = request;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        subscriber.onSubscribe(new StreamSubscription(subscriber));
+    }
+
+    private final class StreamSubscription implements ClientResponseObserver<Req, Resp>, Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final ConcurrentLinkedQueue<Runnable> signals = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private ClientCallStreamObserver<Req> requestStream;
+        private boolean started;
+        private boolean terminated;
+        private volatile boolean done;
+
+        StreamSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<Req> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.disableAutoRequestWithInitial(0);
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (done) return;
+            if (n <= 0) {
+                cancel();
+                terminate(() -> subscriber.onError(new IllegalArgumentException("request must be positive")));
+                return;
+            }
+            if (!started) {
+                started = true;
+                try {
+                    call.accept(request, this);
+                } catch (RuntimeException e) {
+                    onError(e);
+                    return;
+                }
+            }
+            if (requestStream != null) {
+                requestStream.request((int) Math.min(n, Integer.MAX_VALUE));
+            }
+        }
+
+        @Override
+        public synchronized void cancel() {
+            if (done) return;
+            done = true;
+            if (requestStream != null) {
+                requestStream.cancel("subscriber cancelled", null);
+            }
+        }
+
+        @Override
+        public void onNext(Resp value) {
+            if (done) return;
+            T item;
+            try {
+                item = mapper.apply(value);
+            } catch (RuntimeException e) {
+                cancel();
+                terminate(() -> subscriber.onError(e));
+                return;
+            }
+            signal(() -> subscriber.onNext(item));
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) return;
+            done = true;
+            terminate(() -> subscriber.onError(t));
+        }
+
+        @Override
+        public void onCompleted() {
+            if (done) return;
+            done = true;
+            terminate(subscriber::onComplete);
+        }
+
+        private void terminate(Runnable signal) {
+            signal(() -> {
+                terminated = true;
+                signal.run();
+            });
+        }
+
+        private void signal(Runnable signal) {
+            signals.offer(signal);
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            do {
+                Runnable next;
+                while ((next = signals.poll()) != null) {
+                    if (!terminated) {
+                        next.run();
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
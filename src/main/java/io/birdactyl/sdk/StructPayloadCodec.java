@@ -0,0 +1,121 @@
+package io.birdactyl.sdk;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.NullValue;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class StructPayloadCodec implements PayloadCodec {
+    private static final Gson gson = new Gson();
+    private static final Value NULL = Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build();
+
+    @Override
+    public String name() {
+        return "struct";
+    }
+
+    @Override
+    public Map<String, Object> decode(ByteString data) {
+        try {
+            return fromStruct(Struct.parseFrom(data));
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalArgumentException("invalid struct payload: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public ByteString encode(Map<String, Object> value) {
+        return toStruct(value).toByteString();
+    }
+
+    private static Map<String, Object> fromStruct(Struct struct) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (Map.Entry<String, Value> e : struct.getFieldsMap().entrySet()) {
+            out.put(e.getKey(), fromValue(e.getValue()));
+        }
+        return out;
+    }
+
+    private static Object fromValue(Value v) {
+        switch (v.getKindCase()) {
+            case NUMBER_VALUE: return v.getNumberValue();
+            case STRING_VALUE: return v.getStringValue();
+            case BOOL_VALUE: return v.getBoolValue();
+            case STRUCT_VALUE: return fromStruct(v.getStructValue());
+            case LIST_VALUE:
+                List<Object> list = new ArrayList<>(v.getListValue().getValuesCount());
+                for (Value item : v.getListValue().getValuesList()) {
+                    list.add(fromValue(item));
+                }
+                return list;
+            default: return null;
+        }
+    }
+
+    private static Struct toStruct(Map<?, ?> map) {
+        Struct.Builder b = Struct.newBuilder();
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+            if (e.getValue() == null) continue;
+            b.putFields(String.valueOf(e.getKey()), toValue(e.getValue()));
+        }
+        return b.build();
+    }
+
+    private static Value toValue(Object o) {
+        if (o == null) return NULL;
+        if (o instanceof String) return Value.newBuilder().setStringValue((String) o).build();
+        if (o instanceof Number) return Value.newBuilder().setNumberValue(((Number) o).doubleValue()).build();
+        if (o instanceof Boolean) return Value.newBuilder().setBoolValue((Boolean) o).build();
+        if (o instanceof Character) return Value.newBuilder().setStringValue(o.toString()).build();
+        if (o instanceof Map) return Value.newBuilder().setStructValue(toStruct((Map<?, ?>) o)).build();
+        if (o instanceof Iterable) {
+            ListValue.Builder list = ListValue.newBuilder();
+            for (Object item : (Iterable<?>) o) {
+                list.addValues(toValue(item));
+            }
+            return Value.newBuilder().setListValue(list).build();
+        }
+        if (o.getClass().isArray()) {
+            ListValue.Builder list = ListValue.newBuilder();
+            for (int i = 0, n = Array.getLength(o); i < n; i++) {
+                list.addValues(toValue(Array.get(o, i)));
+            }
+            return Value.newBuilder().setListValue(list).build();
+        }
+        return toValue(gson.toJsonTree(o));
+    }
+
+    private static Value toValue(JsonElement json) {
+        if (json == null || json.isJsonNull()) return NULL;
+        if (json.isJsonObject()) {
+            Struct.Builder b = Struct.newBuilder();
+            for (Map.Entry<String, JsonElement> e : ((JsonObject) json).entrySet()) {
+                b.putFields(e.getKey(), toValue(e.getValue()));
+            }
+            return Value.newBuilder().setStructValue(b).build();
+        }
+        if (json.isJsonArray()) {
+            ListValue.Builder list = ListValue.newBuilder();
+            for (JsonElement item : (JsonArray) json) {
+                list.addValues(toValue(item));
+            }
+            return Value.newBuilder().setListValue(list).build();
+        }
+        JsonPrimitive p = json.getAsJsonPrimitive();
+        if (p.isBoolean()) return Value.newBuilder().setBoolValue(p.getAsBoolean()).build();
+        if (p.isNumber()) return Value.newBuilder().setNumberValue(p.getAsDouble()).build();
+        return Value.newBuilder().setStringValue(p.getAsString()).build();
+    }
+}
@@ -0,0 +1,175 @@
+package io.birdactyl.sdk.testkit;
+
+import io.birdactyl.sdk.LatencyHistogram;
+import io.birdactyl.sdk.proto.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+public class LoadGenerator {
+    private final PanelSimulator panel;
+    private final List<Entry> mix = new ArrayList<>();
+    private int totalWeight;
+    private double rate;
+    private int concurrency = 64;
+    private long durationNanos = TimeUnit.SECONDS.toNanos(10);
+    private long warmupNanos;
+
+    public LoadGenerator(PanelSimulator panel) {
+        this.panel = panel;
+    }
+
+    public LoadGenerator add(String name, int weight, Supplier<PanelMessage> factory) {
+        if (weight <= 0) throw new IllegalArgumentException("weight must be positive");
+        mix.add(new Entry(name, weight, factory));
+        totalWeight += weight;
+        return this;
+    }
+
+    public LoadGenerator events(int weight, Supplier<Event> factory) {
+        return add("event", weight, () -> PanelMessage.newBuilder().setEvent(factory.get()).build());
+    }
+
+    public LoadGenerator http(int weight, Supplier<HTTPRequest> factory) {
+        return add("http", weight, () -> PanelMessage.newBuilder().setHttp(factory.get()).build());
+    }
+
+    public LoadGenerator mixins(int weight, Supplier<MixinRequest> factory) {
+        return add("mixin", weight, () -> PanelMessage.newBuilder().setMixin(factory.get()).build());
+    }
+
+    public LoadGenerator schedules(int weight, String scheduleId) {
+        PanelMessage msg = PanelMessage.newBuilder()
+                .setSchedule(ScheduleRequest.newBuilder().setScheduleId(scheduleId))
+                .build();
+        return add("schedule", weight, () -> msg);
+    }
+
+    public LoadGenerator rate(double perSecond) {
+        this.rate = perSecond;
+        return this;
+    }
+
+    public LoadGenerator concurrency(int maxInFlight) {
+        this.concurrency = Math.max(1, maxInFlight);
+        return this;
+    }
+
+    public LoadGenerator duration(long duration, TimeUnit unit) {
+        this.durationNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    public LoadGenerator warmup(long duration, TimeUnit unit) {
+        this.warmupNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        if (mix.isEmpty()) throw new IllegalStateException("no messages configured");
+
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        for (Entry e : mix) {
+            stats.computeIfAbsent(e.name, k -> new Stats());
+        }
+        Stats total = new Stats();
+        Semaphore permits = new Semaphore(concurrency);
+
+        long begin = System.nanoTime();
+        long measureFrom = begin + warmupNanos;
+        long end = measureFrom + durationNanos;
+        long interval = rate > 0 ? (long) (1_000_000_000L / rate) : 0;
+        long next = begin;
+
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= end) break;
+            if (interval > 0) {
+                if (next > now) {
+                    LockSupport.parkNanos(next - now);
+                    continue;
+                }
+            } else {
+                next = now;
+            }
+            permits.acquire();
+
+            Entry entry = pick();
+            long intended = next;
+            boolean measured = intended >= measureFrom;
+            Stats kind = stats.get(entry.name);
+            next += interval;
+
+            panel.send(entry.factory.get()).whenComplete((resp, err) -> {
+                permits.release();
+                if (!measured) return;
+                long latency = System.nanoTime() - intended;
+                boolean failed = err != null || isError(resp);
+                kind.record(latency, failed);
+                total.record(latency, failed);
+            });
+        }
+
+        int outstanding = 0;
+        if (!permits.tryAcquire(concurrency, 30, TimeUnit.SECONDS)) {
+            outstanding = concurrency - permits.availablePermits();
+        }
+        long elapsed = Math.min(System.nanoTime(), end) - measureFrom;
+
+        Map<String, LoadReport.Series> series = new LinkedHashMap<>();
+        for (Map.Entry<String, Stats> e : stats.entrySet()) {
+            series.put(e.getKey(), e.getValue().toSeries());
+        }
+        return new LoadReport(elapsed, total.toSeries(), series, outstanding);
+    }
+
+    private Entry pick() {
+        if (mix.size() == 1) return mix.get(0);
+        int r = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Entry e : mix) {
+            r -= e.weight;
+            if (r < 0) return e;
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private static boolean isError(PluginMessage resp) {
+        if (resp.hasHttpResponse()) return resp.getHttpResponse().getStatus() >= 500;
+        if (resp.hasMixinResponse()) return resp.getMixinResponse().getAction() == MixinResponse.Action.ERROR;
+        if (resp.hasAddonTypeResponse()) return !resp.getAddonTypeResponse().getSuccess();
+        return false;
+    }
+
+    private static final class Entry {
+        final String name;
+        final int weight;
+        final Supplier<PanelMessage> factory;
+
+        Entry(String name, int weight, Supplier<PanelMessage> factory) {
+            this.name = name;
+            this.weight = weight;
+            this.factory = factory;
+        }
+    }
+
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+
+        void record(long nanos, boolean failed) {
+            latency.record(nanos);
+            if (failed) errors.increment();
+        }
+
+        LoadReport.Series toSeries() {
+            return new LoadReport.Series(latency, errors.sum());
+        }
+    }
+}
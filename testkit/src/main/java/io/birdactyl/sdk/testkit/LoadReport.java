@@ -0,0 +1,76 @@
+package io.birdactyl.sdk.testkit;
+
+import io.birdactyl.sdk.LatencyHistogram;
+import java.util.Collections;
+import java.util.Map;
+
+public class LoadReport {
+    private final long elapsedNanos;
+    private final Series total;
+    private final Map<String, Series> byKind;
+    private final int outstanding;
+
+    LoadReport(long elapsedNanos, Series total, Map<String, Series> byKind, int outstanding) {
+        this.elapsedNanos = elapsedNanos;
+        this.total = total;
+        this.byKind = Collections.unmodifiableMap(byKind);
+        this.outstanding = outstanding;
+    }
+
+    public long elapsedMillis() { return elapsedNanos / 1_000_000; }
+    public long requests() { return total.requests(); }
+    public long errors() { return total.errors(); }
+    public double throughput() { return total.throughput(elapsedNanos); }
+    public int outstanding() { return outstanding; }
+    public boolean drained() { return outstanding == 0; }
+    public Series total() { return total; }
+    public Map<String, Series> byKind() { return byKind; }
+
+    public Series kind(String name) {
+        return byKind.get(name);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-10s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "kind", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<String, Series> e : byKind.entrySet()) {
+            row(sb, e.getKey(), e.getValue());
+        }
+        row(sb, "total", total);
+        if (outstanding > 0) {
+            sb.append(String.format("%d requests still outstanding when the drain timed out%n", outstanding));
+        }
+        return sb.toString();
+    }
+
+    private void row(StringBuilder sb, String name, Series s) {
+        sb.append(String.format("%-10s %10d %8d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                name, s.requests(), s.errors(), s.throughput(elapsedNanos),
+                s.percentileMillis(50), s.percentileMillis(90), s.percentileMillis(99),
+                s.percentileMillis(99.9), s.latency().maxMicros() / 1000.0));
+    }
+
+    public static class Series {
+        private final LatencyHistogram latency;
+        private final long errors;
+
+        Series(LatencyHistogram latency, long errors) {
+            this.latency = latency;
+            this.errors = errors;
+        }
+
+        public LatencyHistogram latency() { return latency; }
+        public long requests() { return latency.count(); }
+        public long errors() { return errors; }
+
+        public double percentileMillis(double percentile) {
+            return latency.percentileMicros(percentile) / 1000.0;
+        }
+
+        double throughput(long elapsedNanos) {
+            return elapsedNanos > 0 ? requests() * 1e9 / elapsedNanos : 0;
+        }
+    }
+}
@@ -0,0 +1,621 @@
+package io.birdactyl.sdk.testkit;
+
+import io.birdactyl.sdk.BirdactylPlugin;
+import io.birdactyl.sdk.PayloadCodec;
+import io.birdactyl.sdk.proto.*;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
+public class PanelSimulator extends PanelServiceGrpc.PanelServiceImplBase implements AutoCloseable {
+    private final String name = InProcessServerBuilder.generateName();
+    private final Map<String, Server> servers = new ConcurrentHashMap<>();
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final Map<String, String> kv = new ConcurrentHashMap<>();
+    private final List<ActivityLog> activityLogs = new CopyOnWriteArrayList<>();
+    private final Queue<LogRequest> logs = new ConcurrentLinkedQueue<>();
+    private final Queue<BroadcastEventRequest> broadcasts = new ConcurrentLinkedQueue<>();
+    private final Queue<NotificationRequest> notifications = new ConcurrentLinkedQueue<>();
+    private final Queue<CallPluginRequest> pluginCalls = new ConcurrentLinkedQueue<>();
+    private final Map<String, PluginTarget> pluginTargets = new ConcurrentHashMap<>();
+    private final List<ManagedChannel> channels = new CopyOnWriteArrayList<>();
+    private final List<BirdactylPlugin> plugins = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong requestIds = new AtomicLong();
+    private volatile CompletableFuture<PluginInfo> registered = new CompletableFuture<>();
+    private volatile Session session;
+    private io.grpc.Server server;
+
+    public PanelSimulator start() throws IOException {
+        server = InProcessServerBuilder.forName(name).addService(this).build().start();
+        return this;
+    }
+
+    public ManagedChannel newChannel() {
+        ManagedChannel channel = InProcessChannelBuilder.forName(name).build();
+        channels.add(channel);
+        return channel;
+    }
+
+    public Thread launch(BirdactylPlugin plugin) {
+        ManagedChannel channel = newChannel();
+        plugins.add(plugin);
+        Thread thread = new Thread(() -> {
+            try {
+                plugin.start(channel);
+            } catch (Exception e) {
+                System.err.println("[simulator] plugin stopped: " + e.getMessage());
+            }
+        }, "simulated-plugin");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    public PluginInfo awaitPlugin(long timeout, TimeUnit unit) throws Exception {
+        return registered.get(timeout, unit);
+    }
+
+    public PluginInfo plugin() {
+        Session s = session;
+        return s != null ? s.info : null;
+    }
+
+    public boolean connected() {
+        return session != null;
+    }
+
+    public CompletableFuture<PluginMessage> send(PanelMessage msg) {
+        Session s = session;
+        if (s == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("no plugin connected"));
+        }
+        if (msg.getRequestId().isEmpty()) {
+            msg = msg.toBuilder().setRequestId("sim-" + requestIds.incrementAndGet()).build();
+        }
+        return s.request(msg);
+    }
+
+    public CompletableFuture<EventResponse> event(Event event) {
+        return send(PanelMessage.newBuilder().setEvent(event).build()).thenApply(PluginMessage::getEventResponse);
+    }
+
+    public CompletableFuture<HTTPResponse> http(HTTPRequest request) {
+        return send(PanelMessage.newBuilder().setHttp(request).build()).thenApply(PluginMessage::getHttpResponse);
+    }
+
+    public CompletableFuture<MixinResponse> mixin(MixinRequest request) {
+        return send(PanelMessage.newBuilder().setMixin(request).build()).thenApply(PluginMessage::getMixinResponse);
+    }
+
+    public CompletableFuture<Void> schedule(String scheduleId) {
+        return send(PanelMessage.newBuilder().setSchedule(ScheduleRequest.newBuilder().setScheduleId(scheduleId)).build())
+                .thenApply(m -> null);
+    }
+
+    public void disconnect() {
+        Session s = session;
+        if (s != null) {
+            drop(s, null);
+        }
+    }
+
+    public PanelSimulator addServer(Server s) {
+        servers.put(s.getId(), s);
+        return this;
+    }
+
+    public PanelSimulator addUser(User u) {
+        users.put(u.getId(), u);
+        return this;
+    }
+
+    public PanelSimulator addActivityLog(ActivityLog log) {
+        activityLogs.add(log);
+        return this;
+    }
+
+    public PanelSimulator addPluginTarget(String pluginId, PayloadCodec codec,
+                                          BiFunction<String, Map<String, Object>, Map<String, Object>> handler) {
+        pluginTargets.put(pluginId, new PluginTarget(codec, handler));
+        return this;
+    }
+
+    public Map<String, Server> servers() { return servers; }
+    public Map<String, User> users() { return users; }
+    public Map<String, String> kv() { return kv; }
+    public List<ActivityLog> activityLogs() { return activityLogs; }
+    public Collection<LogRequest> logs() { return logs; }
+    public Collection<BroadcastEventRequest> broadcasts() { return broadcasts; }
+    public Collection<NotificationRequest> notifications() { return notifications; }
+    public Collection<CallPluginRequest> pluginCalls() { return pluginCalls; }
+
+    @Override
+    public void close() {
+        for (BirdactylPlugin plugin : plugins) {
+            plugin.stop();
+        }
+        disconnect();
+        for (ManagedChannel channel : channels) {
+            channel.shutdownNow();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+
+    @Override
+    public StreamObserver<PluginMessage> connect(StreamObserver<PanelMessage> responses) {
+        Session s = new Session(responses);
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(PluginMessage msg) {
+                if (msg.hasRegister()) {
+                    s.info = msg.getRegister();
+                    session = s;
+                    s.send(PanelMessage.newBuilder()
+                            .setRegistered(Empty.getDefaultInstance())
+                            .setPayloadCodec(s.info.getPayloadCodec())
+                            .build());
+                    registered.complete(s.info);
+                    return;
+                }
+                CompletableFuture<PluginMessage> pending = s.pending.remove(msg.getRequestId());
+                if (pending != null) {
+                    pending.complete(msg);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                drop(s, t);
+            }
+
+            @Override
+            public void onCompleted() {
+                drop(s, null);
+            }
+        };
+    }
+
+    private void drop(Session s, Throwable cause) {
+        if (session == s) {
+            session = null;
+            registered = new CompletableFuture<>();
+        }
+        s.close(cause);
+    }
+
+    @Override
+    public void getServer(IDRequest req, StreamObserver<Server> obs) {
+        Server s = servers.get(req.getId());
+        if (s == null) {
+            notFound(obs, "server");
+            return;
+        }
+        reply(obs, s);
+    }
+
+    @Override
+    public void listServers(ListServersRequest req, StreamObserver<ListServersResponse> obs) {
+        List<Server> matched = matchServers(req);
+        reply(obs, ListServersResponse.newBuilder()
+                .addAllServers(page(matched, req.getOffset(), req.getLimit()))
+                .setTotal(matched.size())
+                .build());
+    }
+
+    @Override
+    public void createServer(CreateServerRequest req, StreamObserver<Server> obs) {
+        Server s = Server.newBuilder()
+                .setId("srv-" + ids.incrementAndGet())
+                .setName(req.getName())
+                .setUserId(req.getUserId())
+                .setNodeId(req.getNodeId())
+                .setPackageId(req.getPackageId())
+                .setMemory(req.getMemory())
+                .setCpu(req.getCpu())
+                .setDisk(req.getDisk())
+                .setStatus("offline")
+                .build();
+        servers.put(s.getId(), s);
+        reply(obs, s);
+    }
+
+    @Override
+    public void deleteServer(IDRequest req, StreamObserver<Empty> obs) {
+        if (servers.remove(req.getId()) == null) {
+            notFound(obs, "server");
+            return;
+        }
+        reply(obs, Empty.getDefaultInstance());
+    }
+
+    @Override
+    public void updateServer(UpdateServerRequest req, StreamObserver<Server> obs) {
+        Server s = servers.computeIfPresent(req.getId(), (id, cur) -> {
+            Server.Builder b = cur.toBuilder();
+            if (!req.getName().isEmpty()) b.setName(req.getName());
+            if (!req.getUserId().isEmpty()) b.setUserId(req.getUserId());
+            if (req.getMemory() > 0) b.setMemory(req.getMemory());
+            if (req.getCpu() > 0) b.setCpu(req.getCpu());
+            if (req.getDisk() > 0) b.setDisk(req.getDisk());
+            return b.build();
+        });
+        if (s == null) {
+            notFound(obs, "server");
+            return;
+        }
+        reply(obs, s);
+    }
+
+    @Override
+    public void suspendServer(IDRequest req, StreamObserver<Empty> obs) {
+        updateServer(req.getId(), obs, s -> s.toBuilder().setSuspended(true).build());
+    }
+
+    @Override
+    public void unsuspendServer(IDRequest req, StreamObserver<Empty> obs) {
+        updateServer(req.getId(), obs, s -> s.toBuilder().setSuspended(false).build());
+    }
+
+    @Override
+    public void startServer(IDRequest req, StreamObserver<Empty> obs) {
+        updateServer(req.getId(), obs, s -> s.toBuilder().setStatus("running").build());
+    }
+
+    @Override
+    public void stopServer(IDRequest req, StreamObserver<Empty> obs) {
+        updateServer(req.getId(), obs, s -> s.toBuilder().setStatus("offline").build());
+    }
+
+    @Override
+    public void restartServer(IDRequest req, StreamObserver<Empty> obs) {
+        updateServer(req.getId(), obs, s -> s.toBuilder().setStatus("running").build());
+    }
+
+    @Override
+    public void killServer(IDRequest req, StreamObserver<Empty> obs) {
+        updateServer(req.getId(), obs, s -> s.toBuilder().setStatus("offline").build());
+    }
+
+    @Override
+    public void getUser(IDRequest req, StreamObserver<User> obs) {
+        User u = users.get(req.getId());
+        if (u == null) {
+            notFound(obs, "user");
+            return;
+        }
+        reply(obs, u);
+    }
+
+    @Override
+    public void getUserByEmail(EmailRequest req, StreamObserver<User> obs) {
+        for (User u : users.values()) {
+            if (u.getEmail().equalsIgnoreCase(req.getEmail())) {
+                reply(obs, u);
+                return;
+            }
+        }
+        notFound(obs, "user");
+    }
+
+    @Override
+    public void getUserByUsername(UsernameRequest req, StreamObserver<User> obs) {
+        for (User u : users.values()) {
+            if (u.getUsername().equals(req.getUsername())) {
+                reply(obs, u);
+                return;
+            }
+        }
+        notFound(obs, "user");
+    }
+
+    @Override
+    public void streamServers(ListServersRequest req, StreamObserver<Server> obs) {
+        stream(obs, page(matchServers(req), req.getOffset(), req.getLimit()));
+    }
+
+    private List<Server> matchServers(ListServersRequest req) {
+        List<Server> matched = new ArrayList<>();
+        for (Server s : servers.values()) {
+            if (!req.getUserId().isEmpty() && !req.getUserId().equals(s.getUserId())) continue;
+            if (!req.getNodeId().isEmpty() && !req.getNodeId().equals(s.getNodeId())) continue;
+            matched.add(s);
+        }
+        matched.sort(Comparator.comparing(Server::getId));
+        return matched;
+    }
+
+    @Override
+    public void listUsers(ListUsersRequest req, StreamObserver<ListUsersResponse> obs) {
+        List<User> matched = matchUsers(req);
+        reply(obs, ListUsersResponse.newBuilder()
+                .addAllUsers(page(matched, req.getOffset(), req.getLimit()))
+                .setTotal(matched.size())
+                .build());
+    }
+
+    @Override
+    public void streamUsers(ListUsersRequest req, StreamObserver<User> obs) {
+        stream(obs, page(matchUsers(req), req.getOffset(), req.getLimit()));
+    }
+
+    private List<User> matchUsers(ListUsersRequest req) {
+        String search = req.getSearch().toLowerCase(Locale.ROOT);
+        List<User> matched = new ArrayList<>();
+        for (User u : users.values()) {
+            if (!search.isEmpty() && !u.getUsername().toLowerCase(Locale.ROOT).contains(search)
+                    && !u.getEmail().toLowerCase(Locale.ROOT).contains(search)) continue;
+            if (req.getFilter().equals("admin") && !u.getIsAdmin()) continue;
+            if (req.getFilter().equals("banned") && !u.getIsBanned()) continue;
+            matched.add(u);
+        }
+        matched.sort(Comparator.comparing(User::getId));
+        return matched;
+    }
+
+    @Override
+    public void getActivityLogs(GetLogsRequest req, StreamObserver<GetLogsResponse> obs) {
+        List<ActivityLog> matched = matchActivityLogs(req);
+        reply(obs, GetLogsResponse.newBuilder()
+                .addAllLogs(page(matched, req.getOffset(), req.getLimit()))
+                .setTotal(matched.size())
+                .build());
+    }
+
+    @Override
+    public void streamActivityLogs(GetLogsRequest req, StreamObserver<ActivityLog> obs) {
+        stream(obs, page(matchActivityLogs(req), req.getOffset(), req.getLimit()));
+    }
+
+    private List<ActivityLog> matchActivityLogs(GetLogsRequest req) {
+        String search = req.getSearch().toLowerCase(Locale.ROOT);
+        List<ActivityLog> matched = new ArrayList<>();
+        for (ActivityLog l : activityLogs) {
+            if (!search.isEmpty() && !l.getDescription().toLowerCase(Locale.ROOT).contains(search)
+                    && !l.getUsername().toLowerCase(Locale.ROOT).contains(search)) continue;
+            if (!req.getFilter().isEmpty() && !req.getFilter().equals(l.getAction())) continue;
+            matched.add(l);
+        }
+        return matched;
+    }
+
+    @Override
+    public void createUser(CreateUserRequest req, StreamObserver<User> obs) {
+        User u = User.newBuilder()
+                .setId("usr-" + ids.incrementAndGet())
+                .setEmail(req.getEmail())
+                .setUsername(req.getUsername())
+                .setCreatedAt(java.time.Instant.now().toString())
+                .build();
+        users.put(u.getId(), u);
+        reply(obs, u);
+    }
+
+    @Override
+    public void deleteUser(IDRequest req, StreamObserver<Empty> obs) {
+        if (users.remove(req.getId()) == null) {
+            notFound(obs, "user");
+            return;
+        }
+        reply(obs, Empty.getDefaultInstance());
+    }
+
+    @Override
+    public void updateUser(UpdateUserRequest req, StreamObserver<User> obs) {
+        User u = users.computeIfPresent(req.getId(), (id, cur) -> {
+            User.Builder b = cur.toBuilder();
+            if (!req.getEmail().isEmpty()) b.setEmail(req.getEmail());
+            if (!req.getUsername().isEmpty()) b.setUsername(req.getUsername());
+            return b.build();
+        });
+        if (u == null) {
+            notFound(obs, "user");
+            return;
+        }
+        reply(obs, u);
+    }
+
+    @Override
+    public void banUser(IDRequest req, StreamObserver<Empty> obs) {
+        updateUser(req.getId(), obs, u -> u.toBuilder().setIsBanned(true).build());
+    }
+
+    @Override
+    public void unbanUser(IDRequest req, StreamObserver<Empty> obs) {
+        updateUser(req.getId(), obs, u -> u.toBuilder().setIsBanned(false).build());
+    }
+
+    @Override
+    public void setAdmin(IDRequest req, StreamObserver<Empty> obs) {
+        updateUser(req.getId(), obs, u -> u.toBuilder().setIsAdmin(true).build());
+    }
+
+    @Override
+    public void revokeAdmin(IDRequest req, StreamObserver<Empty> obs) {
+        updateUser(req.getId(), obs, u -> u.toBuilder().setIsAdmin(false).build());
+    }
+
+    @Override
+    public void setUserResources(SetUserResourcesRequest req, StreamObserver<Empty> obs) {
+        updateUser(req.getUserId(), obs, u -> u.toBuilder()
+                .setRamLimit(req.getRamLimit())
+                .setCpuLimit(req.getCpuLimit())
+                .setDiskLimit(req.getDiskLimit())
+                .setServerLimit(req.getServerLimit())
+                .build());
+    }
+
+    @Override
+    public void getKV(KVRequest req, StreamObserver<KVResponse> obs) {
+        String value = kv.get(req.getKey());
+        reply(obs, KVResponse.newBuilder().setFound(value != null).setValue(value != null ? value : "").build());
+    }
+
+    @Override
+    public void setKV(KVSetRequest req, StreamObserver<Empty> obs) {
+        kv.put(req.getKey(), req.getValue());
+        reply(obs, Empty.getDefaultInstance());
+    }
+
+    @Override
+    public void deleteKV(KVRequest req, StreamObserver<Empty> obs) {
+        kv.remove(req.getKey());
+        reply(obs, Empty.getDefaultInstance());
+    }
+
+    @Override
+    public void log(LogRequest req, StreamObserver<Empty> obs) {
+        logs.add(req);
+        reply(obs, Empty.getDefaultInstance());
+    }
+
+    @Override
+    public void broadcastEvent(BroadcastEventRequest req, StreamObserver<Empty> obs) {
+        broadcasts.add(req);
+        reply(obs, Empty.getDefaultInstance());
+    }
+
+    @Override
+    public void sendNotification(NotificationRequest req, StreamObserver<Empty> obs) {
+        notifications.add(req);
+        reply(obs, Empty.getDefaultInstance());
+    }
+
+    @Override
+    public void callPlugin(CallPluginRequest req, StreamObserver<CallPluginResponse> obs) {
+        pluginCalls.add(req);
+        PluginTarget target = pluginTargets.get(req.getPluginId());
+        if (target == null) {
+            reply(obs, CallPluginResponse.newBuilder().setError("plugin " + req.getPluginId() + " not found").build());
+            return;
+        }
+        CallPluginResponse.Builder resp = CallPluginResponse.newBuilder();
+        try {
+            Map<String, Object> data = req.getData().isEmpty() ? new HashMap<>() : target.codec.decode(req.getData());
+            Map<String, Object> out = target.handler.apply(req.getMethod(), data);
+            if (out != null) {
+                resp.setData(target.codec.encode(out));
+            }
+        } catch (RuntimeException e) {
+            resp.setError(req.getPluginId() + " could not handle " + req.getMethod() + ": " + e.getMessage());
+        }
+        reply(obs, resp.build());
+    }
+
+    private void updateServer(String id, StreamObserver<Empty> obs, UnaryOperator<Server> fn) {
+        if (servers.computeIfPresent(id, (k, s) -> fn.apply(s)) == null) {
+            notFound(obs, "server");
+            return;
+        }
+        reply(obs, Empty.getDefaultInstance());
+    }
+
+    private void updateUser(String id, StreamObserver<Empty> obs, UnaryOperator<User> fn) {
+        if (users.computeIfPresent(id, (k, u) -> fn.apply(u)) == null) {
+            notFound(obs, "user");
+            return;
+        }
+        reply(obs, Empty.getDefaultInstance());
+    }
+
+    private static <T> List<T> page(List<T> all, int offset, int limit) {
+        int from = Math.min(Math.max(offset, 0), all.size());
+        int to = limit > 0 ? Math.min(from + limit, all.size()) : all.size();
+        return all.subList(from, to);
+    }
+
+    private static <T> void stream(StreamObserver<T> obs, List<T> items) {
+        ServerCallStreamObserver<T> call = (ServerCallStreamObserver<T>) obs;
+        Iterator<T> it = items.iterator();
+        boolean[] done = new boolean[1];
+        call.setOnCancelHandler(() -> {});
+        call.setOnReadyHandler(() -> {
+            synchronized (done) {
+                while (!done[0] && call.isReady() && it.hasNext()) {
+                    call.onNext(it.next());
+                }
+                if (!done[0] && !it.hasNext()) {
+                    done[0] = true;
+                    call.onCompleted();
+                }
+            }
+        });
+    }
+
+    private static <T> void reply(StreamObserver<T> obs, T value) {
+        obs.onNext(value);
+        obs.onCompleted();
+    }
+
+    private static void notFound(StreamObserver<?> obs, String what) {
+        obs.onError(Status.NOT_FOUND.withDescription(what + " not found").asRuntimeException());
+    }
+
+    private static final class PluginTarget {
+        final PayloadCodec codec;
+        final BiFunction<String, Map<String, Object>, Map<String, Object>> handler;
+
+        PluginTarget(PayloadCodec codec, BiFunction<String, Map<String, Object>, Map<String, Object>> handler) {
+            this.codec = codec;
+            this.handler = handler;
+        }
+    }
+
+    private static final class Session {
+        private final StreamObserver<PanelMessage> out;
+        private final Map<String, CompletableFuture<PluginMessage>> pending = new ConcurrentHashMap<>();
+        private volatile PluginInfo info;
+        private boolean closed;
+
+        Session(StreamObserver<PanelMessage> out) {
+            this.out = out;
+        }
+
+        CompletableFuture<PluginMessage> request(PanelMessage msg) {
+            CompletableFuture<PluginMessage> future = new CompletableFuture<>();
+            pending.put(msg.getRequestId(), future);
+            if (!send(msg)) {
+                pending.remove(msg.getRequestId());
+                future.completeExceptionally(new IllegalStateException("plugin disconnected"));
+            }
+            return future;
+        }
+
+        synchronized boolean send(PanelMessage msg) {
+            if (closed) return false;
+            out.onNext(msg);
+            return true;
+        }
+
+        void close(Throwable cause) {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                try {
+                    out.onCompleted();
+                } catch (Exception ignored) {
+                }
+            }
+            Throwable failure = cause != null ? cause : new IllegalStateException("plugin disconnected");
+            for (CompletableFuture<PluginMessage> f : pending.values()) {
+                f.completeExceptionally(failure);
+            }
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.birdactyl.sdk.testkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.protobuf.ByteString;
+import io.birdactyl.sdk.BirdactylPlugin;
+import io.birdactyl.sdk.EventResult;
+import io.birdactyl.sdk.Response;
+import io.birdactyl.sdk.proto.Event;
+import io.birdactyl.sdk.proto.EventResponse;
+import io.birdactyl.sdk.proto.MixinRequest;
+import io.birdactyl.sdk.proto.MixinResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class DeadlineFallbackTest extends SimulatedPluginTest {
+
+    @Test
+    void overrunningSyncHandlerAllowsAndStopsTheChain() throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicBoolean laterRan = new AtomicBoolean();
+        BirdactylPlugin p = newPlugin().dispatchThreads(8, 256).handlerTimeout(100, TimeUnit.MILLISECONDS);
+        p.onEvent("server_start", e -> {
+            sleep(400);
+            finished.countDown();
+            return EventResult.block("too late");
+        }).priority(10);
+        p.onEvent("server_start", e -> {
+            laterRan.set(true);
+            return EventResult.allow();
+        }).priority(1);
+        connect(p);
+
+        EventResponse resp = panel.event(Event.newBuilder().setType("server_start").setSync(true).build())
+                .get(300, TimeUnit.MILLISECONDS);
+        assertTrue(resp.getAllow());
+        assertTrue(finished.await(2, TimeUnit.SECONDS));
+        sleep(100);
+        assertFalse(laterRan.get());
+    }
+
+    @Test
+    void slowRouteGetsGatewayTimeout() throws Exception {
+        BirdactylPlugin p = newPlugin().dispatchThreads(8, 256);
+        p.route("GET", "/slow", r -> {
+            sleep(1000);
+            return Response.text("done");
+        }).timeout(100, TimeUnit.MILLISECONDS);
+        connect(p);
+
+        assertEquals(504, get("/slow").getStatus());
+    }
+
+    @Test
+    void stalledAsyncMixinFallsThroughToNext() throws Exception {
+        BirdactylPlugin p = newPlugin().dispatchThreads(8, 256);
+        p.mixinAsync("servers.create", ctx -> new CompletableFuture<>()).timeout(100, TimeUnit.MILLISECONDS);
+        connect(p);
+
+        MixinResponse resp = panel.mixin(MixinRequest.newBuilder()
+                .setTarget("servers.create")
+                .setInput(ByteString.copyFromUtf8("{}"))
+                .build()).get(2, TimeUnit.SECONDS);
+        assertEquals(MixinResponse.Action.NEXT, resp.getAction());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.birdactyl.sdk.testkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.google.gson.JsonParser;
+import com.google.protobuf.ByteString;
+import io.birdactyl.sdk.BirdactylPlugin;
+import io.birdactyl.sdk.EventResult;
+import io.birdactyl.sdk.MixinContext;
+import io.birdactyl.sdk.MixinResult;
+import io.birdactyl.sdk.proto.Event;
+import io.birdactyl.sdk.proto.EventResponse;
+import io.birdactyl.sdk.proto.MixinRequest;
+import io.birdactyl.sdk.proto.MixinResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HandlerChainTest extends SimulatedPluginTest {
+    private final AtomicBoolean lowMixinRan = new AtomicBoolean();
+    private final AtomicBoolean lowEventRan = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        BirdactylPlugin p = newPlugin();
+        p.mixin("trail", 1, ctx -> append(ctx, "low"));
+        p.mixin("trail", 10, ctx -> append(ctx, "high"));
+        p.mixin("trail", 5, ctx -> append(ctx, "mid"));
+
+        p.mixin("short", 1, ctx -> {
+            lowMixinRan.set(true);
+            return ctx.next();
+        });
+        p.mixin("short", 10, ctx -> ctx.returnValue("cached"));
+
+        p.onEvent("server_start", e -> {
+            lowEventRan.set(true);
+            return EventResult.allow();
+        }).priority(1);
+        p.onEvent("server_start", e -> EventResult.block("maintenance")).priority(10);
+        connect(p);
+    }
+
+    @Test
+    void mixinsRunByPriorityAndSeeEarlierEdits() throws Exception {
+        MixinResponse resp = mixin("trail");
+        assertEquals(MixinResponse.Action.NEXT, resp.getAction());
+        String trail = JsonParser.parseString(resp.getModifiedInput().toStringUtf8())
+                .getAsJsonObject().get("trail").getAsString();
+        assertEquals("high,mid,low", trail);
+    }
+
+    @Test
+    void returnStopsTheMixinChain() throws Exception {
+        MixinResponse resp = mixin("short");
+        assertEquals(MixinResponse.Action.RETURN, resp.getAction());
+        assertEquals("{\"result\":\"cached\"}", resp.getOutput().toStringUtf8());
+        assertFalse(lowMixinRan.get());
+    }
+
+    @Test
+    void blockStopsTheEventChain() throws Exception {
+        EventResponse resp = panel.event(Event.newBuilder().setType("server_start").setSync(true).build())
+                .get(5, TimeUnit.SECONDS);
+        assertFalse(resp.getAllow());
+        assertEquals("maintenance", resp.getMessage());
+        assertFalse(lowEventRan.get());
+    }
+
+    private static MixinResult append(MixinContext ctx, String name) {
+        String trail = ctx.getString("trail");
+        ctx.set("trail", trail.isEmpty() ? name : trail + "," + name);
+        return ctx.next();
+    }
+
+    private MixinResponse mixin(String target) throws Exception {
+        return panel.mixin(MixinRequest.newBuilder()
+                .setTarget(target)
+                .setInput(ByteString.copyFromUtf8("{}"))
+                .build()).get(5, TimeUnit.SECONDS);
+    }
+}
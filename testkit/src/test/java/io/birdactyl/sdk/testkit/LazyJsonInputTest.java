@@ -0,0 +1,82 @@
+package io.birdactyl.sdk.testkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.protobuf.ByteString;
+import io.birdactyl.sdk.BirdactylPlugin;
+import io.birdactyl.sdk.proto.MixinRequest;
+import io.birdactyl.sdk.proto.MixinResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LazyJsonInputTest extends SimulatedPluginTest {
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        BirdactylPlugin p = newPlugin();
+        p.mixin("rename", ctx -> {
+            ctx.set("name", "renamed");
+            return ctx.next();
+        });
+        p.mixin("nested", ctx -> {
+            ((Map<String, Object>) ctx.get("env")).put("B", "2");
+            ctx.set("name", "renamed");
+            return ctx.next();
+        });
+        p.mixin("nested-return", ctx -> {
+            ((Map<String, Object>) ctx.get("env")).put("B", "2");
+            return ctx.returnValue(ctx.getInput());
+        });
+        connect(p);
+    }
+
+    @Test
+    void untouchedMembersKeepTheirOriginalBytes() throws Exception {
+        MixinResponse resp = mixin("rename", "{\"id\": 7 ,\"name\":\"old\",\"tags\":[1, 2]}");
+        String out = resp.getModifiedInput().toStringUtf8();
+        assertTrue(out.contains("\"id\": 7"), out);
+        assertTrue(out.contains("\"tags\":[1, 2]"), out);
+        assertEquals("renamed", parse(resp.getModifiedInput()).get("name").getAsString());
+    }
+
+    @Test
+    void nestedEditsSurviveAnOverlay() throws Exception {
+        MixinResponse resp = mixin("nested", "{\"name\":\"old\",\"env\":{\"A\":\"1\"}}");
+        JsonObject env = parse(resp.getModifiedInput()).getAsJsonObject("env");
+        assertEquals("1", env.get("A").getAsString());
+        assertEquals("2", env.get("B").getAsString());
+    }
+
+    @Test
+    void nestedEditsAreEncodedWithoutSet() throws Exception {
+        MixinResponse resp = mixin("nested-return", "{\"env\":{\"A\":\"1\"}}");
+        assertEquals(MixinResponse.Action.RETURN, resp.getAction());
+        assertEquals("2", parse(resp.getOutput()).getAsJsonObject("env").get("B").getAsString());
+    }
+
+    @Test
+    void duplicateKeysCollapseToTheLastValue() throws Exception {
+        MixinResponse resp = mixin("rename", "{\"id\":1,\"name\":\"old\",\"id\":2}");
+        String out = resp.getModifiedInput().toStringUtf8();
+        assertEquals(out.indexOf("\"id\""), out.lastIndexOf("\"id\""), out);
+        assertEquals(2, parse(resp.getModifiedInput()).get("id").getAsInt());
+        assertEquals("renamed", parse(resp.getModifiedInput()).get("name").getAsString());
+    }
+
+    private MixinResponse mixin(String target, String json) throws Exception {
+        return panel.mixin(MixinRequest.newBuilder()
+                .setTarget(target)
+                .setInput(ByteString.copyFromUtf8(json))
+                .build()).get(5, TimeUnit.SECONDS);
+    }
+
+    private static JsonObject parse(ByteString json) {
+        return JsonParser.parseString(json.toStringUtf8()).getAsJsonObject();
+    }
+}
@@ -0,0 +1,117 @@
+package io.birdactyl.sdk.testkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.birdactyl.sdk.BirdactylPlugin;
+import io.birdactyl.sdk.EventResult;
+import io.birdactyl.sdk.proto.Event;
+import io.birdactyl.sdk.proto.EventResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class OrderedEventTest extends SimulatedPluginTest {
+
+    @Test
+    void sameKeyRunsInArrivalOrder() throws Exception {
+        List<String> seen = new CopyOnWriteArrayList<>();
+        BirdactylPlugin p = newPlugin().dispatchThreads(8, 256);
+        p.onEvent("console", e -> e.get("server"), e -> {
+            pause(ThreadLocalRandom.current().nextInt(3));
+            seen.add(e.get("server") + e.get("seq"));
+            return EventResult.allow();
+        });
+        connect(p);
+
+        List<CompletableFuture<EventResponse>> replies = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            replies.add(event("console", i % 2 == 0 ? "a" : "b", i));
+        }
+        CompletableFuture.allOf(replies.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertEquals(50, seen.size());
+        int lastA = -1, lastB = -1;
+        for (String s : seen) {
+            int seq = Integer.parseInt(s.substring(1));
+            if (s.charAt(0) == 'a') {
+                assertTrue(seq > lastA, seen::toString);
+                lastA = seq;
+            } else {
+                assertTrue(seq > lastB, seen::toString);
+                lastB = seq;
+            }
+        }
+    }
+
+    @Test
+    void otherKeysDoNotWaitBehindASlowKey() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BirdactylPlugin p = newPlugin().dispatchThreads(8, 256).handlerTimeout(5, TimeUnit.SECONDS);
+        p.onEvent("console", e -> e.get("server"), e -> {
+            if (e.get("server").equals("slow")) await(release);
+            return EventResult.allow();
+        });
+        connect(p);
+
+        CompletableFuture<EventResponse> slow = event("console", "slow", 0);
+        EventResponse fast = event("console", "fast", 1).get(2, TimeUnit.SECONDS);
+        assertTrue(fast.getAllow());
+        assertFalse(slow.isDone());
+        release.countDown();
+        assertTrue(slow.get(2, TimeUnit.SECONDS).getAllow());
+    }
+
+    @Test
+    void queuedEventIsAnsweredWithinItsTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BirdactylPlugin p = newPlugin().dispatchThreads(8, 256).handlerTimeout(200, TimeUnit.MILLISECONDS);
+        p.onEvent("console", e -> e.get("server"), e -> {
+            if (e.get("seq").equals("0")) await(release);
+            return EventResult.block("late");
+        });
+        connect(p);
+
+        try {
+            event("console", "a", 0);
+            long start = System.nanoTime();
+            EventResponse queued = event("console", "a", 1).get(2, TimeUnit.SECONDS);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(queued.getAllow());
+            assertTrue(elapsed < 1000, "queued event answered after " + elapsed + "ms");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private CompletableFuture<EventResponse> event(String type, String server, int seq) {
+        return panel.event(Event.newBuilder()
+                .setType(type)
+                .setSync(true)
+                .putData("server", server)
+                .putData("seq", Integer.toString(seq))
+                .build());
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.birdactyl.sdk.testkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.birdactyl.sdk.BirdactylPlugin;
+import io.birdactyl.sdk.OutboundWriter;
+import io.birdactyl.sdk.Response;
+import io.birdactyl.sdk.proto.HTTPRequest;
+import io.birdactyl.sdk.proto.HTTPResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class OutboundBackpressureTest extends SimulatedPluginTest {
+    private static final String PAYLOAD = "x".repeat(8 * 1024);
+
+    @Test
+    void tinyBudgetStillAnswersEveryRequest() throws Exception {
+        BirdactylPlugin p = newPlugin().dispatchThreads(8, 1024).maxPendingBytes(1);
+        p.route("GET", "/blob/:n", r -> Response.text(r.pathParam("n") + PAYLOAD));
+        connect(p);
+
+        List<String> bodies = burst(200);
+        for (int i = 0; i < bodies.size(); i++) {
+            assertEquals(i + PAYLOAD, bodies.get(i));
+        }
+        OutboundWriter out = plugin.outbound();
+        assertEquals(0, out.messagesDropped());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (out.bytesPending() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, out.bytesPending());
+    }
+
+    @Test
+    void lingeringBatchesAreFlushedByTimer() throws Exception {
+        BirdactylPlugin p = newPlugin()
+                .dispatchThreads(8, 1024)
+                .outboundBatching(5, TimeUnit.MILLISECONDS, 1 << 20);
+        p.route("GET", "/blob/:n", r -> Response.text(r.pathParam("n") + PAYLOAD));
+        connect(p);
+
+        assertEquals(50, burst(50).size());
+        OutboundWriter out = plugin.outbound();
+        assertEquals(0, out.messagesDropped());
+        assertTrue(out.messagesWritten() >= 50);
+    }
+
+    private List<String> burst(int count) throws Exception {
+        List<CompletableFuture<HTTPResponse>> replies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            replies.add(panel.http(HTTPRequest.newBuilder().setMethod("GET").setPath("/blob/" + i).build()));
+        }
+        List<String> bodies = new ArrayList<>();
+        for (CompletableFuture<HTTPResponse> reply : replies) {
+            HTTPResponse resp = reply.get(10, TimeUnit.SECONDS);
+            assertEquals(200, resp.getStatus());
+            bodies.add(resp.getBody().toStringUtf8());
+        }
+        return bodies;
+    }
+}
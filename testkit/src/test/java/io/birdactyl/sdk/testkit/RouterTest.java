@@ -0,0 +1,66 @@
+package io.birdactyl.sdk.testkit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.birdactyl.sdk.BirdactylPlugin;
+import io.birdactyl.sdk.Response;
+import io.birdactyl.sdk.proto.HTTPResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RouterTest extends SimulatedPluginTest {
+
+    @BeforeEach
+    void setUp() throws Exception {
+        BirdactylPlugin p = newPlugin();
+        p.route("GET", "/servers/new", r -> Response.text("static"));
+        p.route("GET", "/servers/:id", r -> Response.text("server " + r.pathParam("id")));
+        p.route("GET", "/servers/:id/edit", r -> Response.text("edit " + r.pathParam("id")));
+        p.route("GET", "/servers/*rest", r -> Response.text("rest " + r.pathParam("rest")));
+        p.route("GET", "/api/*", r -> Response.text("api"));
+        p.route("GET", "/files/img*", r -> Response.text("image"));
+        p.route("GET", "/files/*", r -> Response.text("file"));
+        p.route("GET", "/users/:id", r -> Response.text("undeclared " + r.pathParam("name")));
+        p.route("GET", "/legacy/*", r -> Response.text("legacy " + r.pathParam("legacy")));
+        connect(p);
+    }
+
+    @Test
+    void staticBeatsParamBeatsWildcard() throws Exception {
+        assertEquals("static", body(get("/servers/new")));
+        assertEquals("server 42", body(get("/servers/42")));
+        assertEquals("rest 42/files/a.txt", body(get("/servers/42/files/a.txt")));
+    }
+
+    @Test
+    void backtracksFromStaticIntoParam() throws Exception {
+        assertEquals("edit new", body(get("/servers/new/edit")));
+    }
+
+    @Test
+    void wildcardNeedsATrailingSegment() throws Exception {
+        assertEquals(404, get("/api").getStatus());
+        assertEquals("api", body(get("/api/")));
+        assertEquals("api", body(get("/api/v1/status")));
+    }
+
+    @Test
+    void longerPrefixWinsOverBareWildcard() throws Exception {
+        assertEquals("image", body(get("/files/img-01.png")));
+        assertEquals("file", body(get("/files/doc.pdf")));
+    }
+
+    @Test
+    void undeclaredParamIsNullOnCapturingRoute() throws Exception {
+        assertEquals("undeclared null", body(get("/users/7")));
+    }
+
+    @Test
+    void routesWithoutCapturesKeepLegacyExtraction() throws Exception {
+        assertEquals("legacy abc", body(get("/legacy/abc")));
+    }
+
+    private static String body(HTTPResponse resp) {
+        return resp.getBody().toStringUtf8();
+    }
+}
@@ -0,0 +1,33 @@
+package io.birdactyl.sdk.testkit;
+
+import io.birdactyl.sdk.BirdactylPlugin;
+import io.birdactyl.sdk.proto.HTTPRequest;
+import io.birdactyl.sdk.proto.HTTPResponse;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+
+abstract class SimulatedPluginTest {
+    PanelSimulator panel;
+    BirdactylPlugin plugin;
+
+    BirdactylPlugin newPlugin() {
+        return new BirdactylPlugin("test-plugin", "1.0.0") {};
+    }
+
+    void connect(BirdactylPlugin plugin) throws Exception {
+        this.plugin = plugin;
+        panel = new PanelSimulator().start();
+        panel.launch(plugin);
+        panel.awaitPlugin(5, TimeUnit.SECONDS);
+    }
+
+    HTTPResponse get(String path) throws Exception {
+        return panel.http(HTTPRequest.newBuilder().setMethod("GET").setPath(path).build()).get(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void disconnect() {
+        if (plugin != null) plugin.stop();
+        if (panel != null) panel.close();
+    }
+}